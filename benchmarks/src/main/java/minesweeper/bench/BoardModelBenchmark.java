@@ -0,0 +1,107 @@
+package minesweeper.bench;
+
+import minesweeper.BoardModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link BoardModel}: generation, single and flood reveals,
+ * flagging and the win check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardModelBenchmark {
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT", "1000x1000", "4000x4000"})
+    public String size;
+
+    private BoardSpec spec;
+    private BoardModel board;        // dense board: single reveals, marks, win checks
+    private BoardModel sparse;       // sparse board: flood reveals
+    private int numberRow, numberCol;
+    private int zeroRow, zeroCol;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() {
+        spec = BoardSpec.parse(size);
+        board = spec.newBoard(1);
+        sparse = spec.newSparseBoard(2);
+
+        // a numbered safe cell: revealing it uncovers exactly one cell
+        outer:
+        for (int r = 0; r < board.getRows(); r++) {
+            for (int c = 0; c < board.getCols(); c++) {
+                if (!board.isMine(r, c) && !board.hasTreasure(r, c) && board.getAdjMines(r, c) > 0) {
+                    numberRow = r;
+                    numberCol = c;
+                    break outer;
+                }
+            }
+        }
+        // an empty cell on the sparse board: revealing it floods
+        outer:
+        for (int r = 0; r < sparse.getRows(); r++) {
+            for (int c = 0; c < sparse.getCols(); c++) {
+                if (!sparse.isMine(r, c) && sparse.getAdjMines(r, c) == 0) {
+                    zeroRow = r;
+                    zeroCol = c;
+                    break outer;
+                }
+            }
+        }
+    }
+
+    /** The dense board, rebuilt from the same seed before every invocation. */
+    @State(Scope.Thread)
+    public static class FreshBoard {
+        BoardModel board;
+
+        @Setup(org.openjdk.jmh.annotations.Level.Invocation)
+        public void reset(BoardModelBenchmark bench) {
+            board = bench.spec.newBoard(1);
+        }
+    }
+
+    /** The sparse board, rebuilt from the same seed before every invocation. */
+    @State(Scope.Thread)
+    public static class FreshSparseBoard {
+        BoardModel board;
+
+        @Setup(org.openjdk.jmh.annotations.Level.Invocation)
+        public void reset(BoardModelBenchmark bench) {
+            board = bench.spec.newSparseBoard(2);
+        }
+    }
+
+    @Benchmark
+    public BoardModel initialize() {
+        board.initialize();
+        return board;
+    }
+
+    @Benchmark
+    public int revealSingle(FreshBoard fresh) {
+        return fresh.board.revealCell(numberRow, numberCol);
+    }
+
+    @Benchmark
+    public int revealFlood(FreshSparseBoard fresh) {
+        return fresh.board.revealCell(zeroRow, zeroCol);
+    }
+
+    @Benchmark
+    public int markCell() {
+        board.markCell(numberRow, numberCol);
+        return board.getFlagsLeft();
+    }
+
+    @Benchmark
+    public boolean isGameWon() {
+        return board.isGameWon();
+    }
+}
@@ -0,0 +1,42 @@
+package minesweeper.bench;
+
+import minesweeper.BoardModel;
+import minesweeper.Level;
+
+/**
+ * Board sizes shared by the benchmarks: either a {@link Level} name or a custom
+ * "ROWSxCOLS" size, which uses EXPERT's mine density (about 20%).
+ */
+final class BoardSpec {
+
+    final int rows, cols, mines, treasures;
+
+    private BoardSpec(int rows, int cols, int mines, int treasures) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.treasures = treasures;
+    }
+
+    static BoardSpec parse(String spec) {
+        for (Level level : Level.values()) {
+            if (level.name().equals(spec)) {
+                return new BoardSpec(level.rows(), level.cols(), level.mines(), level.treasures());
+            }
+        }
+        String[] dims = spec.split("x");
+        int rows = Integer.parseInt(dims[0]);
+        int cols = Integer.parseInt(dims[1]);
+        int cells = rows * cols;
+        return new BoardSpec(rows, cols, cells / 5, cells / 50);
+    }
+
+    BoardModel newBoard(long seed) {
+        return new BoardModel(rows, cols, mines, treasures, seed);
+    }
+
+    /** Same size with a low mine density, so first reveals open large regions. */
+    BoardModel newSparseBoard(long seed) {
+        return new BoardModel(rows, cols, Math.max(1, rows * cols / 100), 0, seed);
+    }
+}
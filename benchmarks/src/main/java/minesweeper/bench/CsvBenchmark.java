@@ -0,0 +1,57 @@
+package minesweeper.bench;
+
+import minesweeper.BoardModel;
+import minesweeper.CSVUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading games through {@link CSVUtils}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CsvBenchmark {
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT", "1000x1000"})
+    public String size;
+
+    private BoardModel board;
+    private File loadFile, saveFile;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws IOException {
+        board = BoardSpec.parse(size).newBoard(1);
+        // play a little so the file holds revealed cells and flags too
+        board.revealCell(board.getRows() / 2, board.getCols() / 2);
+        board.markCell(0, 0);
+
+        loadFile = File.createTempFile("bench-load", ".csv");
+        saveFile = File.createTempFile("bench-save", ".csv");
+        loadFile.deleteOnExit();
+        saveFile.deleteOnExit();
+        CSVUtils.saveToCSV(board, loadFile.getAbsolutePath());
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        loadFile.delete();
+        saveFile.delete();
+    }
+
+    @Benchmark
+    public BoardModel loadFromCSV() throws IOException {
+        return CSVUtils.loadFromCSV(loadFile.getAbsolutePath());
+    }
+
+    @Benchmark
+    public void saveToCSV() throws IOException {
+        CSVUtils.saveToCSV(board, saveFile.getAbsolutePath());
+    }
+}
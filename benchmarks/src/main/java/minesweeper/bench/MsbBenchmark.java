@@ -0,0 +1,57 @@
+package minesweeper.bench;
+
+import minesweeper.BoardModel;
+import minesweeper.MSBUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading games in the binary .msb format ({@link MSBUtils}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MsbBenchmark {
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT", "1000x1000", "4000x4000"})
+    public String size;
+
+    private BoardModel board;
+    private File loadFile, saveFile;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws IOException {
+        board = BoardSpec.parse(size).newBoard(1);
+        // play a little so the file holds revealed cells and flags too
+        board.revealCell(board.getRows() / 2, board.getCols() / 2);
+        board.markCell(0, 0);
+
+        loadFile = File.createTempFile("bench-load", ".msb");
+        saveFile = File.createTempFile("bench-save", ".msb");
+        loadFile.deleteOnExit();
+        saveFile.deleteOnExit();
+        MSBUtils.saveToMSB(board, loadFile.getAbsolutePath());
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        loadFile.delete();
+        saveFile.delete();
+    }
+
+    @Benchmark
+    public BoardModel loadFromMSB() throws IOException {
+        return MSBUtils.loadFromMSB(loadFile.getAbsolutePath());
+    }
+
+    @Benchmark
+    public void saveToMSB() throws IOException {
+        MSBUtils.saveToMSB(board, saveFile.getAbsolutePath());
+    }
+}
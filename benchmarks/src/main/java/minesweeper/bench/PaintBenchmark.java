@@ -0,0 +1,89 @@
+package minesweeper.bench;
+
+import minesweeper.BoardModel;
+import minesweeper.BoardRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GUIView's board painting, rendered into an off-screen BufferedImage the size
+ * of the board or of a 1200x800 window onto it, whichever is smaller.
+ * Runs headless; tile icons are read from src/resources relative to the
+ * project root (the jmh task's working directory).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PaintBenchmark {
+
+    @Param({"BEGINNER", "INTERMEDIATE", "EXPERT", "1000x1000", "5000x5000"})
+    public String size;
+
+    private BoardModel board;
+    private BoardRenderer renderer;
+    private BufferedImage image;
+    private Graphics2D g;
+    private int cell;
+    private int coveredRow, coveredCol;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() {
+        board = BoardSpec.parse(size).newBoard(1);
+        board.revealCell(board.getRows() / 2, board.getCols() / 2);
+
+        renderer = new BoardRenderer(BoardRenderer.loadIcons(BoardRenderer.ICON_DIR));
+        cell = renderer.getCellSize();
+        image = new BufferedImage(Math.min(board.getCols() * cell, 1200),
+                                  Math.min(board.getRows() * cell, 800),
+                                  BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+
+        // a covered cell inside the window, to flag and unflag for the single-change repaint
+        outer:
+        for (int r = 0; r < image.getHeight() / cell; r++) {
+            for (int c = 0; c < image.getWidth() / cell; c++) {
+                if (!board.isRevealed(r, c)) {
+                    coveredRow = r;
+                    coveredCol = c;
+                    break outer;
+                }
+            }
+        }
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    /** Repaint the whole window at native tile size. */
+    @Benchmark
+    public BufferedImage paintBoard() {
+        g.setClip(0, 0, image.getWidth(), image.getHeight());
+        renderer.paint(g, board, cell);
+        return image;
+    }
+
+    /** Repaint the whole window zoomed far out (flat-colour overview). */
+    @Benchmark
+    public BufferedImage paintOverview() {
+        g.setClip(0, 0, image.getWidth(), image.getHeight());
+        renderer.paint(g, board, 0.25);
+        return image;
+    }
+
+    /** A click as GUIView handles it: toggle one flag, repaint only that cell's rectangle. */
+    @Benchmark
+    public BufferedImage paintChanges() {
+        board.markCell(coveredRow, coveredCol);
+        g.setClip(coveredCol * cell, coveredRow * cell, cell, cell);
+        renderer.paint(g, board, cell);
+        return image;
+    }
+}
@@ -0,0 +1,108 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * AdjacencyCalculator fills in the adjacent-mine counts of a {@link BitBoard}.
+ *
+ * The 3x3 neighbourhood sum is computed separably: each row of the mine bitmap
+ * is copied into a zero-padded buffer and summed horizontally over a 3-cell
+ * window, then three consecutive horizontal sums are added vertically.  The
+ * padding removes every bounds check from the inner loops.
+ *
+ * Boards of at least {@link #PARALLEL_THRESHOLD} cells are split into row
+ * strips and processed on the common ForkJoinPool.
+ */
+public class AdjacencyCalculator {
+    /** Boards with at least this many cells are computed in parallel. */
+    public static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    // strips are not split below this many cells
+    private static final int MIN_STRIP_CELLS = 1 << 16;
+
+    private AdjacencyCalculator() { }
+
+    /**
+     * Recompute the adjacent-mine count of every cell; mine cells get 0.
+     * @param board the board to update in place
+     */
+    public static void compute(BitBoard board) {
+        if (board.size() < PARALLEL_THRESHOLD) {
+            computeRows(board, 0, board.getRows());
+        } else {
+            ForkJoinPool.commonPool().invoke(new Strip(board, 0, board.getRows()));
+        }
+    }
+
+    /** Sequentially compute counts for rows [r0, r1). */
+    static void computeRows(BitBoard board, int r0, int r1) {
+        int rows = board.getRows(), cols = board.getCols();
+        long[] mines = board.mineWords();
+
+        int[] padded = new int[cols + 2];  // one mine row with a zero column each side
+        int[] above  = new int[cols];      // horizontal sums of row r-1
+        int[] here   = new int[cols];      // ... of row r
+        int[] below  = new int[cols];      // ... of row r+1
+
+        if (r0 > 0) horizontalSum(mines, r0 - 1, cols, padded, above);
+        horizontalSum(mines, r0, cols, padded, here);
+
+        for (int r = r0; r < r1; r++) {
+            if (r + 1 < rows) horizontalSum(mines, r + 1, cols, padded, below);
+            else              Arrays.fill(below, 0);
+
+            int i = r * cols;
+            for (int c = 0; c < cols; c++, i++) {
+                boolean mine = (mines[i >>> 6] & (1L << i)) != 0;
+                board.setAdjMines(i, mine ? 0 : above[c] + here[c] + below[c]);
+            }
+
+            // rotate the three row buffers
+            int[] t = above;
+            above = here;
+            here  = below;
+            below = t;
+        }
+    }
+
+    /** out[c] = mines at (r, c-1) + (r, c) + (r, c+1). */
+    private static void horizontalSum(long[] mines, int r, int cols, int[] padded, int[] out) {
+        int i = r * cols;
+        for (int c = 1; c <= cols; c++, i++) {
+            padded[c] = (int) (mines[i >>> 6] >>> i) & 1;
+        }
+        for (int c = 0; c < cols; c++) {
+            out[c] = padded[c] + padded[c + 1] + padded[c + 2];
+        }
+    }
+
+    /**
+     * A band of rows, split in half until small enough to compute directly.
+     * Split points fall on even rows so that, for odd widths, two strips never
+     * write the two nibbles of the same adjacency byte.
+     */
+    private static class Strip extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BitBoard board;
+        private final int r0, r1;
+
+        Strip(BitBoard board, int r0, int r1) {
+            this.board = board;
+            this.r0 = r0;
+            this.r1 = r1;
+        }
+
+        @Override
+        protected void compute() {
+            int mid = ((r0 + r1) >>> 1) & ~1;
+            if ((long) (r1 - r0) * board.getCols() <= MIN_STRIP_CELLS || mid <= r0) {
+                computeRows(board, r0, r1);
+            } else {
+                invokeAll(new Strip(board, r0, mid), new Strip(board, mid, r1));
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package minesweeper;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * AnsiRenderer draws a {@link BoardModel} on an ANSI/VT100 terminal for
+ * {@link TextView}.
+ *
+ * The first frame clears the screen and draws the whole board.  After that,
+ * only the cells a move changed are redrawn, each reached with a cursor
+ * positioning sequence (runs of neighbouring cells in a row share one), and
+ * the status line is rewritten in place.  A move that changes most of the
+ * board is cheaper to redraw in full, so it is.
+ *
+ * Every frame is built in a reusable byte buffer and sent with a single
+ * write straight to the output stream, bypassing System.out's per-call
+ * locking and flushing.
+ *
+ * Screen layout (1-based terminal rows): a title on row 1, board row r on
+ * row r+2 with cell c at column 2c+1, the status line below the board and the
+ * prompt line below that.
+ */
+public class AnsiRenderer {
+    private static final byte ESC = 0x1B;
+    private static final int FULL_REDRAW_DIVISOR = 4;  // redraw in full if over 1/4 of the cells changed
+
+    private final OutputStream out;
+    private byte[] buf = new byte[1 << 12];
+    private int len;
+    private int[] sorted = new int[64];  // changed cells in screen order
+    private long bytesWritten;
+
+    /** Renderer writing to standard output. */
+    public AnsiRenderer() {
+        this(new FileOutputStream(FileDescriptor.out));
+    }
+
+    /**
+     * @param out where frames are written; not buffered, each frame is one write
+     */
+    public AnsiRenderer(OutputStream out) {
+        this.out = out;
+    }
+
+    /** Total bytes sent so far. */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /** Clear the screen and draw the whole board, status and prompt line. */
+    public void drawFull(BoardModel model) {
+        len = 0;
+        csi("H");
+        csi("2J");
+        ascii("Current Board:\n");
+        for (int r = 0; r < model.getRows(); r++) {
+            ensure(2 * model.getCols() + 1);
+            for (int c = 0; c < model.getCols(); c++) {
+                buf[len++] = (byte) TextView.symbol(model, r, c);
+                buf[len++] = ' ';
+            }
+            buf[len++] = '\n';
+        }
+        status(model);
+        flush();
+    }
+
+    /**
+     * Redraw only the given cells, then the status line, and leave the cursor
+     * at the start of a cleared prompt line.
+     */
+    public void drawChanges(BoardModel model, ChangeSet changes) {
+        int n = changes.size();
+        if ((long) n * FULL_REDRAW_DIVISOR > (long) model.getRows() * model.getCols()) {
+            drawFull(model);
+            return;
+        }
+        if (sorted.length < n) sorted = new int[Math.max(n, sorted.length * 2)];
+        for (int k = 0; k < n; k++) sorted[k] = changes.cell(k);
+        Arrays.sort(sorted, 0, n);
+
+        len = 0;
+        int cols = model.getCols();
+        int last = -2;  // last cell drawn; the cursor sits just after it
+        for (int k = 0; k < n; k++) {
+            int i = sorted[k];
+            if (i == last) continue;  // changed twice in one batch
+            int r = i / cols, c = i - r * cols;
+            ensure(24);
+            if (i == last + 1 && c != 0) {
+                buf[len++] = ' ';     // step over the separator instead of repositioning
+            } else {
+                moveTo(r + 2, 2 * c + 1);
+            }
+            buf[len++] = (byte) TextView.symbol(model, r, c);
+            last = i;
+        }
+        moveTo(model.getRows() + 2, 1);
+        status(model);
+        flush();
+    }
+
+    /** Status line (cleared to the end), then a cleared prompt line with the cursor on it. */
+    private void status(BoardModel model) {
+        ascii("Flags left: " + model.getFlagsLeft() + " | Treasures: " + model.getTreasureCount());
+        csi("K");
+        ascii("\n");
+        csi("K");
+    }
+
+    /** CSI row;col H: move the cursor (1-based). */
+    private void moveTo(int row, int col) {
+        ensure(24);
+        buf[len++] = ESC;
+        buf[len++] = '[';
+        number(row);
+        buf[len++] = ';';
+        number(col);
+        buf[len++] = 'H';
+    }
+
+    private void csi(String command) {
+        ensure(2);
+        buf[len++] = ESC;
+        buf[len++] = '[';
+        ascii(command);
+    }
+
+    private void number(int v) {
+        if (v >= 10) number(v / 10);
+        buf[len++] = (byte) ('0' + v % 10);
+    }
+
+    private void ascii(String s) {
+        ensure(s.length());
+        for (int k = 0; k < s.length(); k++) buf[len++] = (byte) s.charAt(k);
+    }
+
+    private void ensure(int more) {
+        if (len + more > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(len + more, buf.length * 2));
+        }
+    }
+
+    /** Send the frame with one write. */
+    private void flush() {
+        System.out.flush();  // anything printed through System.out goes first
+        try {
+            out.write(buf, 0, len);
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        bytesWritten += len;
+    }
+}
@@ -0,0 +1,128 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * BitBoard is the packed storage engine behind {@link BoardModel}.
+ * Instead of one {@link Cell} object per square, it keeps the mine, revealed,
+ * flagged and treasure states as bit planes in {@code long[]} arrays and the
+ * adjacent-mine counts as 4-bit nibbles, two per byte.
+ *
+ * Cells are addressed by their row-major index {@code r * cols + c}.
+ */
+public class BitBoard {
+    private final int rows, cols, size;
+
+    // one bit per cell for each boolean state
+    private final long[] mines;
+    private final long[] revealed;
+    private final long[] flagged;
+    private final long[] treasures;
+
+    // adjacent mine counts (0-8), two cells per byte
+    private final byte[] adj;
+
+    /**
+     * Creates an empty board (no mines, nothing revealed).
+     * @param rows number of rows
+     * @param cols number of columns
+     */
+    public BitBoard(int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Board must be at least 1x1, got " + rows + "x" + cols);
+        }
+        long cells = (long) rows * cols;
+        if (cells > Integer.MAX_VALUE - 64) {
+            throw new IllegalArgumentException("Board too large: " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.size = (int) cells;
+
+        int words = (size + 63) >>> 6;
+        mines     = new long[words];
+        revealed  = new long[words];
+        flagged   = new long[words];
+        treasures = new long[words];
+        adj       = new byte[(size + 1) >>> 1];
+    }
+
+    /** Reset every cell to a covered, empty square. */
+    public void clear() {
+        Arrays.fill(mines, 0L);
+        Arrays.fill(revealed, 0L);
+        Arrays.fill(flagged, 0L);
+        Arrays.fill(treasures, 0L);
+        Arrays.fill(adj, (byte) 0);
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int size()    { return size; }
+
+    /** Row-major index of (r,c). */
+    public int index(int r, int c) {
+        return r * cols + c;
+    }
+
+    // --- Bit plane accessors ---
+
+    public boolean isMine(int i)       { return get(mines, i); }
+    public void setMine(int i, boolean v)     { put(mines, i, v); }
+
+    public boolean isRevealed(int i)   { return get(revealed, i); }
+    public void setRevealed(int i, boolean v) { put(revealed, i, v); }
+
+    public boolean isFlagged(int i)    { return get(flagged, i); }
+    public void setFlagged(int i, boolean v)  { put(flagged, i, v); }
+
+    public boolean hasTreasure(int i)  { return get(treasures, i); }
+    public void setTreasure(int i, boolean v) { put(treasures, i, v); }
+
+    /**
+     * All four flags of cell i as one value, built from the
+     * {@link ChangeSet#MINE}, REVEALED, FLAGGED and TREASURE bits.
+     */
+    public int state(int i) {
+        return (get(mines, i)     ? ChangeSet.MINE     : 0)
+             | (get(revealed, i)  ? ChangeSet.REVEALED : 0)
+             | (get(flagged, i)   ? ChangeSet.FLAGGED  : 0)
+             | (get(treasures, i) ? ChangeSet.TREASURE : 0);
+    }
+
+    /** @return the adjacent-mine count stored for cell i */
+    public int getAdjMines(int i) {
+        int b = adj[i >>> 1];
+        return (i & 1) == 0 ? b & 0x0F : (b >>> 4) & 0x0F;
+    }
+
+    /** Store an adjacent-mine count (0-15) for cell i. */
+    public void setAdjMines(int i, int n) {
+        int k = i >>> 1;
+        int b = adj[k];
+        if ((i & 1) == 0) {
+            b = (b & 0xF0) | (n & 0x0F);
+        } else {
+            b = (b & 0x0F) | ((n & 0x0F) << 4);
+        }
+        adj[k] = (byte) b;
+    }
+
+    /**
+     * Raw bit planes, bit i set when cell i has that state.
+     * Exposed for bulk passes (adjacency, save files); callers must not resize them.
+     */
+    long[] mineWords()     { return mines; }
+    long[] revealedWords() { return revealed; }
+    long[] flaggedWords()  { return flagged; }
+    long[] treasureWords() { return treasures; }
+
+    private static boolean get(long[] plane, int i) {
+        return (plane[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void put(long[] plane, int i, boolean v) {
+        if (v) plane[i >>> 6] |=  (1L << i);
+        else   plane[i >>> 6] &= ~(1L << i);
+    }
+}
@@ -0,0 +1,63 @@
+package minesweeper;
+
+/**
+ * BoardListener receives change events from a {@link BoardModel}, so a consumer
+ * (a view, recorder, metrics counter or network mirror) can follow the game
+ * without scanning the board after every move.
+ *
+ * Events are batched per move: one cellsChanged call lists every cell a
+ * reveal, flag or batch of moves changed.  See {@link BoardModel#addListener}.
+ */
+public interface BoardListener {
+
+    /**
+     * Moves just applied, sent before the cellsChanged event for them.  Every
+     * move that reached the board is listed, including ones it ignored (e.g.
+     * revealing a revealed cell), so replaying them on a copy of the board
+     * reproduces this one.  The array is reused by the model.
+     *
+     * @param model the board the moves were applied to
+     * @param moves packed moves (see {@link Move#pack})
+     * @param off   index of the first move
+     * @param len   number of moves
+     */
+    default void movesApplied(BoardModel model, long[] moves, int off, int len) {
+    }
+
+    /**
+     * A move was undone or redone (see {@link BoardModel#undo}), sent before
+     * the cellsChanged event for it.  Unlike a move, it is not listed by
+     * movesApplied.
+     *
+     * @param model the board that changed
+     * @param redo  false for an undo, true for a redo
+     */
+    default void historyStepped(BoardModel model, boolean redo) {
+    }
+
+    /**
+     * Cells changed by the last move.  The ChangeSet is reused by the model,
+     * so read it before returning.
+     *
+     * @param model   the board that changed
+     * @param changes the changed cells, with their old and new states
+     */
+    void cellsChanged(BoardModel model, ChangeSet changes);
+
+    /**
+     * The game status changed: flags left, treasures held, game over or won.
+     *
+     * @param model the board that changed
+     * @param stats the model's counters after the move
+     */
+    default void statusChanged(BoardModel model, GameStats stats) {
+    }
+
+    /**
+     * Every cell may have changed (the board was reset or reloaded); re-read it.
+     *
+     * @param model the board that changed
+     */
+    default void boardReset(BoardModel model) {
+    }
+}
@@ -1,97 +1,206 @@
 
 package minesweeper;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 public class BoardModel {
+    /** Default number of cell changes remembered for undo; see setHistoryLimit. */
+    public static final int DEFAULT_HISTORY_LIMIT = 1 << 20;
+
     private final int rows, cols, totalMines, totalTreasures;
-    private Cell[][] grid;
+    private final BitBoard board;       // packed cell state
+    private final SplittableRandom rng; // single RNG for all placement
+    private final int[] keepClear;      // ascending cells never given a mine or treasure
+    private Cell[][] gridView;          // lazily built Cell view for getGrid()
+    private final ChangeSet changes;    // cells changed by the last move
+    private MoveHistory history = new MoveHistory(DEFAULT_HISTORY_LIMIT);  // undo/redo deltas
+    private BoardListener[] listeners = new BoardListener[0];  // replaced on change, never mutated
+    private final long[] lastMove = new long[1];                // the single move sent to listeners
+    private boolean shownOver, shownWon;    // status last sent to listeners
+    private int shownFlags, shownTreasures;
     private boolean gameOver;
     private int flagsLeft, treasureCount;
 
+    // running counters, kept in step with the cell state (see count())
+    private int cellsRevealed, unrevealedSafe;
+    private int correctFlags, incorrectFlags, revealedTreasures;
+
     /**
      * Constructs a new board model.
      * @param rows      number of rows
      * @param cols      number of columns
      * @param mines     total number of mines
      * @param treasures total number of hidden treasures (randomly placed)
+     * @throws IllegalArgumentException if the mines and treasures cannot fit on the board
      */
     public BoardModel(int rows, int cols, int mines, int treasures) {
+        this(rows, cols, mines, treasures, new SplittableRandom(), true);
+    }
+
+    /**
+     * Constructs a board whose layout is fully determined by the given seed,
+     * so the same seed always produces the same mines and treasures.
+     */
+    public BoardModel(int rows, int cols, int mines, int treasures, long seed) {
+        this(rows, cols, mines, treasures, new SplittableRandom(seed), true);
+    }
+
+    /**
+     * Constructs a seeded board on which the first click at (safeRow, safeCol)
+     * opens an area: that cell and its neighbours get no mine or treasure, now
+     * or when the board is re-initialized.
+     * @throws IllegalArgumentException if the cell is off the board, or the
+     *         mines and treasures do not fit around the cleared area
+     */
+    public BoardModel(int rows, int cols, int mines, int treasures, long seed, int safeRow, int safeCol) {
+        this(rows, cols, mines, treasures, new SplittableRandom(seed), true,
+             neighbourhood(rows, cols, safeRow, safeCol));
+    }
+
+    /**
+     * Check the arguments of {@link #BoardModel(int, int, int, int, long, int, int)}
+     * without building a board.
+     * @throws IllegalArgumentException if the cell is off the board, or the
+     *         mines and treasures do not fit around the cleared area
+     */
+    public static void checkFirstClick(int rows, int cols, int mines, int treasures, int safeRow, int safeCol) {
+        checkFit(rows, cols, mines, treasures, neighbourhood(rows, cols, safeRow, safeCol).length);
+    }
+
+    private static void checkFit(int rows, int cols, int mines, int treasures, int keptClear) {
+        if (mines < 0 || treasures < 0) {
+            throw new IllegalArgumentException(
+                "Mine and treasure counts must be non-negative: " + mines + ", " + treasures);
+        }
+        if ((long) mines + treasures > (long) rows * cols - keptClear) {
+            throw new IllegalArgumentException(
+                mines + " mines + " + treasures + " treasures do not fit on a "
+                + rows + "x" + cols + " board"
+                + (keptClear > 0 ? " around a first click" : ""));
+        }
+    }
+
+    /**
+     * Creates a board with every cell covered and empty (no mines or treasures
+     * placed yet), to be filled in cell by cell, e.g. via setCellFromCode when
+     * restoring a saved game.  Skips the random placement and adjacency pass.
+     */
+    public static BoardModel blank(int rows, int cols, int mines, int treasures) {
+        return new BoardModel(rows, cols, mines, treasures, new SplittableRandom(), false);
+    }
+
+    private BoardModel(int rows, int cols, int mines, int treasures,
+                       SplittableRandom rng, boolean populate) {
+        this(rows, cols, mines, treasures, rng, populate, new int[0]);
+    }
+
+    private BoardModel(int rows, int cols, int mines, int treasures,
+                       SplittableRandom rng, boolean populate, int[] keepClear) {
+        checkFit(rows, cols, mines, treasures, keepClear.length);
         this.rows           = rows;
         this.cols           = cols;
         this.totalMines     = mines;
         this.totalTreasures = treasures;
-        initialize();
+        this.board          = new BitBoard(rows, cols);
+        this.changes        = new ChangeSet(cols);
+        this.rng            = rng;
+        this.keepClear      = keepClear;
+        if (populate) {
+            initialize();
+        } else {
+            flagsLeft      = totalMines;
+            unrevealedSafe = board.size();
+        }
     }
 
     /**
-     * Initialize or reset the board: create all cells, randomly place mines & treasures,
+     * Initialize or reset the board: clear all cells, randomly place mines & treasures,
      * then compute adjacency counts.
      */
     public void initialize() {
-        grid         = new Cell[rows][cols];
         flagsLeft    = totalMines;
         treasureCount = 0;
         gameOver     = false;
 
-        // create blank cells
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                grid[r][c] = new Cell();
-            }
-        }
+        // blank every cell
+        board.clear();
+        changes.clear();
+        history.clear();
 
-        placeMines();
-        placeTreasures();
+        placeMinesAndTreasures();
         calcAdjacents();
+
+        cellsRevealed     = 0;
+        unrevealedSafe    = board.size() - totalMines;
+        correctFlags      = 0;
+        incorrectFlags    = 0;
+        revealedTreasures = 0;
+        fireReset();
     }
 
-    /** Randomly place exactly totalMines mines. */
-    private void placeMines() {
-        Random rand = new Random();
-        int placed = 0;
-        while (placed < totalMines) {
-            int r = rand.nextInt(rows), c = rand.nextInt(cols);
-            if (!grid[r][c].isMine()) {
-                grid[r][c].setMine(true);
-                placed++;
-            }
+    /**
+     * Randomly place exactly totalMines mines and totalTreasures treasures on
+     * distinct cells, in O(mines + treasures) time with no rejection loop.
+     *
+     * Floyd's sampling picks the mines+treasures cells, using the mine plane
+     * itself as the "already chosen" set; a partial Fisher-Yates shuffle of the
+     * chosen cells then turns a uniform subset of them into treasures.  Cells
+     * to keep clear are skipped by sampling over the remaining ones only.
+     */
+    private void placeMinesAndTreasures() {
+        int n = board.size() - keepClear.length;
+        int k = totalMines + totalTreasures;
+        int[] chosen = new int[k];
+
+        for (int j = n - k, x = 0; j < n; j++, x++) {
+            int t = allowedCell(rng.nextInt(j + 1));
+            int pick = board.isMine(t) ? allowedCell(j) : t;
+            board.setMine(pick, true);
+            chosen[x] = pick;
+        }
+
+        for (int x = 0; x < totalTreasures; x++) {
+            int y = x + rng.nextInt(k - x);
+            int pick = chosen[y];
+            chosen[y] = chosen[x];
+            chosen[x] = pick;
+            board.setMine(pick, false);
+            board.setTreasure(pick, true);
         }
     }
 
-    /** Randomly place exactly totalTreasures treasures (not on a mine). */
-    private void placeTreasures() {
-        Random rand = new Random();
-        int placed = 0;
-        while (placed < totalTreasures) {
-            int r = rand.nextInt(rows), c = rand.nextInt(cols);
-            if (!grid[r][c].isMine() && !grid[r][c].hasTreasure()) {
-                grid[r][c].setTreasure(true);
-                placed++;
-            }
+    /** The t-th cell, counting only cells not kept clear. */
+    private int allowedCell(int t) {
+        for (int e : keepClear) {
+            if (t < e) break;
+            t++;
         }
+        return t;
     }
 
-    /** Compute adjacency counts for every non-mine cell. */
-    private void calcAdjacents() {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                if (!grid[r][c].isMine()) {
-                    int count = 0;
-                    for (int dr = -1; dr <= 1; dr++) {
-                        for (int dc = -1; dc <= 1; dc++) {
-                            int rr = r + dr, cc = c + dc;
-                            if (rr >= 0 && rr < rows
-                             && cc >= 0 && cc < cols
-                             && grid[rr][cc].isMine()) {
-                                count++;
-                            }
-                        }
-                    }
-                    grid[r][c].setAdjMines(count);
-                }
+    /** Ascending indices of (r,c) and its neighbours. */
+    private static int[] neighbourhood(int rows, int cols, int r, int c) {
+        if (r < 0 || r >= rows || c < 0 || c >= cols) {
+            throw new IllegalArgumentException("First click (" + r + "," + c + ") is off the "
+                + rows + "x" + cols + " board");
+        }
+        int[] cells = new int[9];
+        int count = 0;
+        for (int rr = Math.max(0, r - 1); rr <= Math.min(rows - 1, r + 1); rr++) {
+            for (int cc = Math.max(0, c - 1); cc <= Math.min(cols - 1, c + 1); cc++) {
+                cells[count++] = rr * cols + cc;
             }
         }
+        return Arrays.copyOf(cells, count);
+    }
+
+    /**
+     * Compute adjacency counts for every non-mine cell.
+     * Large boards are split across cores; see AdjacencyCalculator.
+     */
+    private void calcAdjacents() {
+        AdjacencyCalculator.compute(board);
     }
 
     /** Public helper to re-run adjacency logic after loading from CSV. */
@@ -103,51 +212,154 @@ public class BoardModel {
      * Reveal cell (r,c).  If it’s a treasure, increment treasureCount.
      * If it’s a mine and treasureCount>0, spend one treasure; else gameOver=true.
      * If it’s a zero‐adj cell, flood‐reveal neighbors.
+     * The uncovered cells are listed in getLastChanges().
+     *
+     * @return how many cells were uncovered by this call (0 if the move was ignored)
      */
-    public void revealCell(int r, int c) {
-        if (outOfBounds(r, c)
-         || grid[r][c].isRevealed()
-         || grid[r][c].isFlagged()
-         || gameOver) {
-            return;
+    public int revealCell(int r, int c) {
+        changes.clear();
+        boolean applies = !gameOver;
+        int uncovered = reveal(r, c);
+        if (applies) {
+            history.record(changes, 0, changes.size(), gameOver);
+            publishMove(Move.Type.REVEAL, r, c);
         }
+        publish();
+        return uncovered;
+    }
 
-        Cell cell = grid[r][c];
-        cell.setRevealed(true);
+    /**
+     * Apply a batch of packed moves (see {@link Move#pack}) in order, stopping as
+     * soon as the game is won or lost.  Each move behaves exactly like
+     * revealCell or markCell, but getLastChanges() lists the cells changed by
+     * the whole batch (a cell flagged and unflagged appears twice), so a view
+     * needs to refresh only once per batch.
+     *
+     * @param moves packed moves
+     * @param off   index of the first move to apply
+     * @param len   number of moves available from off
+     * @return the number of moves consumed, including ignored ones; less than
+     *         len only if the game ended first
+     */
+    public int applyMoves(long[] moves, int off, int len) {
+        changes.clear();
+        int k = 0;
+        for (; k < len && !gameOver && unrevealedSafe != 0; k++) {
+            long m = moves[off + k];
+            int from = changes.size();
+            if (Move.typeOf(m) == Move.Type.MARK) mark(Move.rowOf(m), Move.colOf(m));
+            else                                  reveal(Move.rowOf(m), Move.colOf(m));
+            history.record(changes, from, changes.size(), gameOver);
+        }
+        if (k > 0) {
+            for (BoardListener l : listeners) l.movesApplied(this, moves, off, k);
+        }
+        publish();
+        return k;
+    }
+
+    /** revealCell without clearing the change set first. */
+    private int reveal(int r, int c) {
+        if (outOfBounds(r, c) || gameOver) {
+            return 0;
+        }
+        int i = board.index(r, c);
+        if (board.isRevealed(i) || board.isFlagged(i)) {
+            return 0;
+        }
+
+        int before = board.state(i);
+        board.setRevealed(i, true);
+        changes.add(i, before, before | ChangeSet.REVEALED);
+        cellsRevealed++;
 
-        if (cell.hasTreasure()) {
+        if (board.hasTreasure(i)) {
+            unrevealedSafe--;
+            revealedTreasures++;
             treasureCount++;
         }
-        else if (cell.isMine()) {
+        else if (board.isMine(i)) {
             if (treasureCount > 0) {
                 treasureCount--;
             } else {
                 gameOver = true;
             }
         }
-        else if (cell.getAdjMines() == 0) {
-            floodReveal(r, c);
+        else {
+            unrevealedSafe--;
+            if (board.getAdjMines(i) == 0) {
+                return 1 + floodReveal(changes.size() - 1);
+            }
         }
+        return 1;
     }
 
-    /** Flood‐fill for empty (0‐adj) cells. */
-    private void floodReveal(int r, int c) {
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                int rr = r + dr, cc = c + dc;
-                if (!outOfBounds(rr, cc) && !grid[rr][cc].isRevealed()) {
-                    revealCell(rr, cc);
+    /**
+     * Flood‐fill outward from the empty (0‐adj) cell just revealed, which is the
+     * last entry in the change set.  Breadth-first, using the change set itself as
+     * the queue: every cell is marked revealed as it is added, so each cell is
+     * queued at most once, and large openings neither recurse nor allocate
+     * (beyond the change set growing to its high-water mark).
+     *
+     * @param head position of the start cell in the change set
+     * @return number of cells uncovered (not counting the start cell)
+     */
+    private int floodReveal(int head) {
+        int uncovered = 0;
+
+        while (head < changes.size()) {
+            int i = changes.cell(head++);
+            if (board.hasTreasure(i) || board.getAdjMines(i) != 0) continue;
+
+            int r = i / cols, c = i - r * cols;
+            int r0 = r > 0 ? r - 1 : r, r1 = r < rows - 1 ? r + 1 : r;
+            int c0 = c > 0 ? c - 1 : c, c1 = c < cols - 1 ? c + 1 : c;
+
+            for (int rr = r0; rr <= r1; rr++) {
+                int j = rr * cols + c0;
+                for (int cc = c0; cc <= c1; cc++, j++) {
+                    if (board.isRevealed(j) || board.isFlagged(j)) continue;
+                    // neighbours of a 0-adj cell are never mines
+                    int before = board.hasTreasure(j) ? ChangeSet.TREASURE : 0;
+                    board.setRevealed(j, true);
+                    changes.add(j, before, before | ChangeSet.REVEALED);
+                    uncovered++;
+                    if (board.hasTreasure(j)) {
+                        revealedTreasures++;
+                        treasureCount++;
+                    }
                 }
             }
         }
+        cellsRevealed  += uncovered;
+        unrevealedSafe -= uncovered;
+        return uncovered;
     }
 
     /** Toggle a flag at (r,c) (if not revealed), adjusting flagsLeft. */
     public void markCell(int r, int c) {
-        if (outOfBounds(r, c) || grid[r][c].isRevealed() || gameOver) return;
-        boolean now = !grid[r][c].isFlagged();
-        grid[r][c].setFlagged(now);
+        changes.clear();
+        boolean applies = !gameOver;
+        mark(r, c);
+        if (applies) {
+            history.record(changes, 0, changes.size(), false);
+            publishMove(Move.Type.MARK, r, c);
+        }
+        publish();
+    }
+
+    /** markCell without clearing the change set first. */
+    private void mark(int r, int c) {
+        if (outOfBounds(r, c) || gameOver) return;
+        int i = board.index(r, c);
+        if (board.isRevealed(i)) return;
+        boolean now = !board.isFlagged(i);
+        int before = board.state(i);
+        board.setFlagged(i, now);
+        changes.add(i, before, before ^ ChangeSet.FLAGGED);
         flagsLeft += now ? -1 : 1;
+        if (board.isMine(i)) correctFlags   += now ? 1 : -1;
+        else                 incorrectFlags += now ? 1 : -1;
     }
 
     /** Returns true if the player has hit a mine (and has no treasure to defuse it). */
@@ -157,26 +369,228 @@ public class BoardModel {
 
     /** 
      * Returns true only when *all* non-mine cells (including treasures) 
-     * have been revealed.
+     * have been revealed.  Constant time: backed by the unrevealed-safe counter.
      */
     public boolean isGameWon() {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                Cell cell = grid[r][c];
-                if (!cell.isMine() && !cell.isRevealed()) {
-                    return false;
-                }
+        return unrevealedSafe == 0;
+    }
+
+    /** Snapshot of the running game counters; constant time. */
+    public GameStats getStats() {
+        return new GameStats(cellsRevealed, unrevealedSafe,
+                             correctFlags, incorrectFlags,
+                             revealedTreasures, flagsLeft,
+                             treasureCount, gameOver);
+    }
+
+    /**
+     * The cells changed by the most recent revealCell, markCell, applyMoves or
+     * revealAllMines call.  The same object is reused, so read it before the next move.
+     */
+    public ChangeSet getLastChanges() {
+        return changes;
+    }
+
+    /**
+     * Reveal every mine on the board (used to show the board after a loss).
+     * This ends the game for good: the undo history is cleared.
+     */
+    public void revealAllMines() {
+        changes.clear();
+        history.clear();
+        for (int i = 0; i < board.size(); i++) {
+            if (board.isMine(i) && !board.isRevealed(i)) {
+                int before = board.state(i);
+                board.setRevealed(i, true);
+                changes.add(i, before, before | ChangeSet.REVEALED);
+                cellsRevealed++;
             }
         }
+        publish();
+    }
+
+    // --- Undo / redo ---
+
+    /**
+     * Take back the most recent move, including the one that lost the game.
+     * Only the cells that move changed are touched, so this is O(changed cells);
+     * they are listed in getLastChanges() and sent to listeners like a move.
+     *
+     * @return false if there is nothing to undo
+     */
+    public boolean undo() {
+        if (!history.canUndo()) return false;
+        changes.clear();
+        long start = history.undoStart();
+        for (long p = history.cursor() - 1; p >= start; p--) {
+            step(history.entry(p), false);
+        }
+        history.setCursor(start);
+        for (BoardListener l : listeners) l.historyStepped(this, false);
+        publish();
         return true;
     }
 
+    /**
+     * Apply again the most recently undone move.  Making any other move
+     * discards the moves that could have been redone.
+     *
+     * @return false if there is nothing to redo
+     */
+    public boolean redo() {
+        if (!history.canRedo()) return false;
+        changes.clear();
+        long end = history.redoEnd();
+        for (long p = history.cursor(); p < end; p++) {
+            step(history.entry(p), true);
+        }
+        history.setCursor(end);
+        for (BoardListener l : listeners) l.historyStepped(this, true);
+        publish();
+        return true;
+    }
+
+    public boolean canUndo() { return history.canUndo(); }
+    public boolean canRedo() { return history.canRedo(); }
+
+    /**
+     * Bound the memory used for undo: at most about limit cell changes are
+     * remembered (8 bytes each), and the oldest moves are forgotten to make
+     * room.  A move that changes more cells than that cannot be undone.
+     * Clears the current history.
+     *
+     * @param limit cell changes to remember, or 0 to keep no history
+     */
+    public void setHistoryLimit(int limit) {
+        history = new MoveHistory(limit);
+    }
+
+    /**
+     * Move one cell from its recorded before state to its after state
+     * (forward) or back, adjusting the counters to match.
+     */
+    private void step(long e, boolean forward) {
+        int i = MoveHistory.cell(e);
+        int before = MoveHistory.before(e), after = MoveHistory.after(e);
+        int from = forward ? before : after, to = forward ? after : before;
+        int sign = forward ? 1 : -1;
+        board.setRevealed(i, (to & ChangeSet.REVEALED) != 0);
+        board.setFlagged(i,  (to & ChangeSet.FLAGGED)  != 0);
+        changes.add(i, from, to);
+
+        int flipped = before ^ after;
+        if ((flipped & ChangeSet.REVEALED) != 0) {
+            // the same bookkeeping as reveal(), run forwards or backwards
+            cellsRevealed += sign;
+            if ((after & ChangeSet.TREASURE) != 0) {
+                unrevealedSafe    -= sign;
+                revealedTreasures += sign;
+                treasureCount     += sign;
+            } else if ((after & ChangeSet.MINE) != 0) {
+                if ((e & MoveHistory.ENDED) != 0) gameOver = forward;
+                else                              treasureCount -= sign;
+            } else {
+                unrevealedSafe -= sign;
+            }
+        }
+        if ((flipped & ChangeSet.FLAGGED) != 0) {
+            int placed = (after & ChangeSet.FLAGGED) != 0 ? sign : -sign;
+            flagsLeft -= placed;
+            if ((after & ChangeSet.MINE) != 0) correctFlags   += placed;
+            else                               incorrectFlags += placed;
+        }
+    }
+
+    // --- Listeners ---
+
+    /**
+     * Register a listener for cell, status and reset events.  Events are sent
+     * on the thread making the move, once the move is complete; a listener
+     * must not make moves on this model from inside a callback.
+     */
+    public void addListener(BoardListener listener) {
+        BoardListener[] next = Arrays.copyOf(listeners, listeners.length + 1);
+        next[listeners.length] = listener;
+        if (listeners.length == 0) rememberStatus();
+        listeners = next;
+    }
+
+    /** Stop sending events to a listener; does nothing if it is not registered. */
+    public void removeListener(BoardListener listener) {
+        for (int k = 0; k < listeners.length; k++) {
+            if (listeners[k] == listener) {
+                BoardListener[] next = new BoardListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, next, 0, k);
+                System.arraycopy(listeners, k + 1, next, k, next.length - k);
+                listeners = next;
+                return;
+            }
+        }
+    }
+
+    /** Send a single move to every listener. */
+    private void publishMove(Move.Type type, int r, int c) {
+        BoardListener[] ls = listeners;
+        if (ls.length == 0) return;
+        lastMove[0] = Move.pack(type, r, c);
+        for (BoardListener l : ls) l.movesApplied(this, lastMove, 0, 1);
+    }
+
+    /** Send the last move's changes, and the status if it changed, to every listener. */
+    private void publish() {
+        BoardListener[] ls = listeners;
+        if (ls.length == 0) return;
+        if (!changes.isEmpty()) {
+            for (BoardListener l : ls) l.cellsChanged(this, changes);
+        }
+        if (gameOver != shownOver || isGameWon() != shownWon
+                || flagsLeft != shownFlags || treasureCount != shownTreasures) {
+            rememberStatus();
+            GameStats stats = getStats();
+            for (BoardListener l : ls) l.statusChanged(this, stats);
+        }
+    }
+
+    /** Tell every listener the whole board changed. */
+    private void fireReset() {
+        BoardListener[] ls = listeners;
+        if (ls.length == 0) return;
+        rememberStatus();
+        for (BoardListener l : ls) l.boardReset(this);
+    }
+
+    private void rememberStatus() {
+        shownOver      = gameOver;
+        shownWon       = isGameWon();
+        shownFlags     = flagsLeft;
+        shownTreasures = treasureCount;
+    }
+
     // --- Accessors ---
 
-    /** The grid of Cell objects. */
+    /**
+     * A Cell-per-square view of the board, kept for code that still walks Cell[][].
+     * The cells are thin views that read and write through to the packed storage,
+     * so prefer the per-cell accessors below on large boards.
+     */
     public Cell[][] getGrid() {
-        return grid;
+        if (gridView == null) {
+            Cell[][] view = new Cell[rows][cols];
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    view[r][c] = new CellView(board.index(r, c));
+                }
+            }
+            gridView = view;
+        }
+        return gridView;
     }
+
+    public boolean isMine(int r, int c)      { return board.isMine(board.index(r, c)); }
+    public boolean isRevealed(int r, int c)  { return board.isRevealed(board.index(r, c)); }
+    public boolean isFlagged(int r, int c)   { return board.isFlagged(board.index(r, c)); }
+    public boolean hasTreasure(int r, int c) { return board.hasTreasure(board.index(r, c)); }
+    public int getAdjMines(int r, int c)     { return board.getAdjMines(board.index(r, c)); }
     public int getRows()            { return rows; }
     public int getCols()            { return cols; }
     public int getFlagsLeft()       { return flagsLeft; }
@@ -197,26 +611,28 @@ public class BoardModel {
      *  13 = revealed treasure cell
      */
     public void setCellFromCode(int r, int c, int code) {
-        Cell cell = grid[r][c];
+        int i = board.index(r, c);
+        count(i, -1);
 
         // Mine & treasure flags
-        cell.setMine(code == 9 || code == 12);
-        cell.setTreasure(code == 13);
+        board.setMine(i, code == 9 || code == 12);
+        board.setTreasure(i, code == 13);
 
         // Flag state
-        cell.setFlagged(code == 11 || code == 12);
+        board.setFlagged(i, code == 11 || code == 12);
 
         // Revealed?  Only numbered (1–8) and treasure (13) are shown
         if (code >= 1 && code <= 8) {
-            cell.setAdjMines(code);
-            cell.setRevealed(true);
+            board.setAdjMines(i, code);
+            board.setRevealed(i, true);
         }
         else if (code == 13) {
-            cell.setRevealed(true);
+            board.setRevealed(i, true);
         }
         else {
-            cell.setRevealed(false);
+            board.setRevealed(i, false);
         }
+        count(i, +1);
     }
 
     /**
@@ -224,21 +640,21 @@ public class BoardModel {
      * See setCellFromCode for code meanings.
      */
     public int codeForCell(int r, int c) {
-        Cell cell = grid[r][c];
+        int i = board.index(r, c);
         // Unrevealed cells are either flagged or hidden mines
-        if (cell.isFlagged()) {
-            return cell.isMine() ? 12 : 11;
+        if (board.isFlagged(i)) {
+            return board.isMine(i) ? 12 : 11;
         }
-        if (cell.isMine()) {
+        if (board.isMine(i)) {
             return 9;
         }
-        if (!cell.isRevealed()) {
+        if (!board.isRevealed(i)) {
             return 0;
         }
-        if (cell.hasTreasure()) {
+        if (board.hasTreasure(i)) {
             return 13;
         }
-        return cell.getAdjMines();
+        return board.getAdjMines(i);
     }
 
     /** Header string for CSV, e.g. "8x8_10". */
@@ -248,6 +664,62 @@ public class BoardModel {
 
     public void setFlagsLeft(int f)    { this.flagsLeft = f; }
     public void setTreasureCount(int t){ this.treasureCount = t; }
+    public void setGameOver(boolean g) { this.gameOver = g; }
+    public int getTotalMines()         { return totalMines; }
+    public int getTotalTreasures()     { return totalTreasures; }
+
+    /** The packed storage, for bulk readers and writers such as MSBUtils. */
+    BitBoard bits() {
+        return board;
+    }
+
+    /**
+     * Bring adjacency counts and running counters back in step after the
+     * bit planes were written directly (see bits()).
+     */
+    void refreshAfterBulkLoad() {
+        calcAdjacents();
+        recount();
+        history.clear();
+        fireReset();
+    }
+
+    /**
+     * Add (sign = +1) or remove (sign = -1) cell i's contribution to the running
+     * counters.  Used around arbitrary state changes: remove, mutate, add back.
+     */
+    private void count(int i, int sign) {
+        boolean mine = board.isMine(i), revealed = board.isRevealed(i);
+        if (revealed)   cellsRevealed  += sign;
+        else if (!mine) unrevealedSafe += sign;
+        if (board.isFlagged(i)) {
+            if (mine) correctFlags   += sign;
+            else      incorrectFlags += sign;
+        }
+        if (revealed && board.hasTreasure(i)) revealedTreasures += sign;
+    }
+
+    /**
+     * Rebuild every running counter from the cell state, a whole 64-cell word
+     * at a time (bits past the last cell are always clear).
+     */
+    private void recount() {
+        long[] mine = board.mineWords(), rev = board.revealedWords();
+        long[] flag = board.flaggedWords(), tre = board.treasureWords();
+        int revealed = 0, minedOrRevealed = 0, good = 0, bad = 0, found = 0;
+        for (int w = 0; w < mine.length; w++) {
+            revealed        += Long.bitCount(rev[w]);
+            minedOrRevealed += Long.bitCount(mine[w] | rev[w]);
+            good            += Long.bitCount(flag[w] & mine[w]);
+            bad             += Long.bitCount(flag[w] & ~mine[w]);
+            found           += Long.bitCount(tre[w] & rev[w]);
+        }
+        cellsRevealed     = revealed;
+        unrevealedSafe    = board.size() - minedOrRevealed;
+        correctFlags      = good;
+        incorrectFlags    = bad;
+        revealedTreasures = found;
+    }
 
     /** @return true if (r,c) is outside the board. */
     private boolean outOfBounds(int r, int c) {
@@ -268,12 +740,7 @@ public class BoardModel {
         BoardModel model = new BoardModel(8, 8, 10, 0);
 
         // Override grid entirely
-        model.grid = new Cell[8][8];
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                model.grid[r][c] = new Cell();
-            }
-        }
+        model.board.clear();
         // Place exactly according to the 0/1/2 spec
         // Iterate through each cell in the 8x8 grid
         for (int r = 0; r < 8; r++) {
@@ -281,19 +748,45 @@ public class BoardModel {
             int v = cells[r][c]; // Get the value from the input configuration
             if (v == 1) {
                 // If the value is 1, set the cell as a mine
-                model.grid[r][c].setMine(true);
+                model.board.setMine(model.board.index(r, c), true);
             } else if (v == 2) {
                 // If the value is 2, set the cell as a treasure
-                model.grid[r][c].setTreasure(true);
+                model.board.setTreasure(model.board.index(r, c), true);
             }
             }
         }
 
         // Recompute adjacency, reset counters
         model.recalcAdjacents();
+        model.recount();
         model.flagsLeft    = 10;
         model.treasureCount = 0;
         model.gameOver     = false;
         return model;
     }
+
+    /**
+     * A Cell whose state lives in the packed BitBoard rather than in its own fields.
+     * Writes go through count() so the running counters stay correct.
+     */
+    private class CellView extends Cell {
+        private final int i;
+
+        CellView(int i) { this.i = i; }
+
+        @Override public int getAdjMines()              { return board.getAdjMines(i); }
+        @Override public void setAdjMines(int adjMines) { board.setAdjMines(i, adjMines); }
+
+        @Override public boolean isMine()               { return board.isMine(i); }
+        @Override public void setMine(boolean mine)     { count(i, -1); board.setMine(i, mine); count(i, +1); }
+
+        @Override public boolean isFlagged()            { return board.isFlagged(i); }
+        @Override public void setFlagged(boolean f)     { count(i, -1); board.setFlagged(i, f); count(i, +1); }
+
+        @Override public boolean hasTreasure()          { return board.hasTreasure(i); }
+        @Override public void setTreasure(boolean t)    { count(i, -1); board.setTreasure(i, t); count(i, +1); }
+
+        @Override public boolean isRevealed()           { return board.isRevealed(i); }
+        @Override public void setRevealed(boolean r)    { count(i, -1); board.setRevealed(i, r); count(i, +1); }
+    }
 }
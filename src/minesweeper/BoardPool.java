@@ -0,0 +1,184 @@
+package minesweeper;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * BoardPool keeps a few freshly generated, unplayed boards of every
+ * {@link Level} ready, so starting a game does not wait for board generation.
+ *
+ * Each level's pool holds up to a fixed depth of boards.  Taking one hands
+ * out a ready board if there is one (a hit), or generates one on the spot (a
+ * miss); either way a single low-priority background thread then tops the
+ * pools up again, emptiest first.  The refill lag is the time from a board
+ * being taken, hit or miss, until its replacement is ready.
+ *
+ * Boards come from a factory, so the pool works just as well for slower,
+ * constrained generation such as {@link minesweeper.solver.NoGuessGenerator}.
+ */
+public class BoardPool implements AutoCloseable {
+    /** Boards kept ready per level when no depth is given. */
+    public static final int DEFAULT_DEPTH = 2;
+
+    private final int depth;
+    private final Function<Level, BoardModel> factory;
+    private final Map<Level, ArrayBlockingQueue<BoardModel>> ready = new EnumMap<>(Level.class);
+    private final Map<Level, ConcurrentLinkedQueue<Long>> takenAt = new EnumMap<>(Level.class);  // awaiting replacement
+    private final ExecutorService refiller;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile RuntimeException failure;
+
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+    private final AtomicLong refills = new AtomicLong(), lagNanos = new AtomicLong(), maxLagNanos = new AtomicLong();
+
+    /** A pool of randomly generated boards. */
+    public BoardPool(int depth) {
+        this(depth, level -> new BoardModel(level.rows(), level.cols(), level.mines(), level.treasures()));
+    }
+
+    /**
+     * @param depth   boards kept ready per level
+     * @param factory generates a new board for a level; called from the
+     *                background thread, and from {@link #take} on a miss
+     */
+    public BoardPool(int depth, Function<Level, BoardModel> factory) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Pool depth must be at least 1: " + depth);
+        }
+        this.depth = depth;
+        this.factory = factory;
+        for (Level level : Level.values()) {
+            ready.put(level, new ArrayBlockingQueue<>(depth));
+            takenAt.put(level, new ConcurrentLinkedQueue<>());
+        }
+        refiller = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "board-pool");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduleRefill();
+    }
+
+    /**
+     * A new, unplayed board for the level; ready at once unless the pool for
+     * that level has run dry.
+     */
+    public BoardModel take(Level level) {
+        BoardModel board = ready.get(level).poll();
+        takenAt.get(level).add(System.nanoTime());
+        scheduleRefill();
+        if (board == null) {
+            misses.incrementAndGet();
+            return factory.apply(level);
+        }
+        hits.incrementAndGet();
+        return board;
+    }
+
+    private void scheduleRefill() {
+        if (closed || !refilling.compareAndSet(false, true)) return;
+        try {
+            refiller.execute(this::refill);
+        } catch (RejectedExecutionException ex) {
+            refilling.set(false);   // closed since the check
+        }
+    }
+
+    /** Top up every level, emptiest first, until all are full or the pool closes. */
+    private void refill() {
+        boolean failed = false;
+        try {
+            Level level;
+            while (!closed && (level = emptiest()) != null) {
+                ArrayBlockingQueue<BoardModel> pool = ready.get(level);
+                pool.offer(factory.apply(level));   // only this thread adds boards
+                // a new board replaces the oldest take; a full pool has replaced them all
+                boolean full = pool.remainingCapacity() == 0;
+                Long since;
+                while ((since = takenAt.get(level).poll()) != null) {
+                    long lag = System.nanoTime() - since;
+                    lagNanos.addAndGet(lag);
+                    maxLagNanos.accumulateAndGet(lag, Math::max);
+                    refills.incrementAndGet();
+                    if (!full) break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            failure = ex;   // takes still work, generating on the spot
+            failed = true;
+        } finally {
+            refilling.set(false);
+        }
+        if (!failed && !closed && emptiest() != null) scheduleRefill();   // taken from meanwhile
+    }
+
+    /** The level with the fewest ready boards, or null if every pool is full. */
+    private Level emptiest() {
+        Level min = null;
+        int fewest = depth;
+        for (Map.Entry<Level, ArrayBlockingQueue<BoardModel>> e : ready.entrySet()) {
+            int n = e.getValue().size();
+            if (n < fewest) {
+                fewest = n;
+                min = e.getKey();
+            }
+        }
+        return min;
+    }
+
+    // --- Status ---
+
+    public int getDepth()             { return depth; }
+    public int getReady(Level level)  { return ready.get(level).size(); }
+    /** Boards handed out straight from the pool. */
+    public long getHits()             { return hits.get(); }
+    /** Boards generated on the spot because the pool was empty. */
+    public long getMisses()           { return misses.get(); }
+    /** Boards taken and since replaced. */
+    public long getRefills()          { return refills.get(); }
+
+    /** Mean time from taking a board until its replacement was ready, in ms; 0 if none yet. */
+    public double getMeanRefillLagMillis() {
+        long n = refills.get();
+        return n == 0 ? 0 : lagNanos.get() / 1e6 / n;
+    }
+
+    /**
+     * The last error the factory threw on the background thread, or null if
+     * there was none.  Refilling stops after an error until the next take.
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    /** Longest time from taking a board until its replacement was ready, in ms. */
+    public double getMaxRefillLagMillis() {
+        return maxLagNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits %d, misses %d, refill lag ms mean %.2f, max %.2f",
+            getHits(), getMisses(), getMeanRefillLagMillis(), getMaxRefillLagMillis());
+    }
+
+    /**
+     * Stop refilling, without waiting: the background thread finishes the
+     * board it is generating, if any, and exits.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        refiller.shutdown();
+    }
+}
@@ -0,0 +1,228 @@
+package minesweeper;
+
+import javax.swing.ImageIcon;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.ImageObserver;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BoardRenderer draws a {@link BoardModel} onto any Graphics using the tile icons.
+ * It holds no Swing components, so the same painting code serves the GUIView
+ * board panel and off-screen images (e.g. benchmarks).
+ *
+ * Only cells intersecting the Graphics clip are drawn, so painting a small
+ * window onto a huge board costs time proportional to the window.  The board
+ * can be drawn at any zoom (pixels per cell): tiles are pre-scaled once per
+ * size and cached, and below {@link #MIN_TILE_PX} pixels per cell the board is
+ * drawn as a flat-colour overview instead, like a minimap: each pixel shows the
+ * most telling cell of the block it covers (see {@link #blockCode}).
+ */
+public class BoardRenderer {
+    /** Total number of tile icons (0.png to 13.png). */
+    public static final int NUM_IMAGES = 14;
+
+    /** Default folder holding the tile icons. */
+    public static final String ICON_DIR = "src/resources/";
+
+    /** Smallest cell size, in pixels, drawn with tile icons. */
+    public static final int MIN_TILE_PX = 4;
+
+    // overview colours, indexed by icon code
+    private static final int[] OVERVIEW_RGB = new int[NUM_IMAGES];
+    static {
+        OVERVIEW_RGB[0] = 0xF2F2F2;                       // revealed, empty
+        for (int n = 1; n <= 8; n++) {
+            OVERVIEW_RGB[n] = 0xF2F2F2 - n * 0x0E0E0E;    // darker with more adjacent mines
+        }
+        OVERVIEW_RGB[9]  = 0x000000;                      // mine
+        OVERVIEW_RGB[10] = 0x8C8C8C;                      // covered
+        OVERVIEW_RGB[11] = 0xE53935;                      // flagged
+        OVERVIEW_RGB[12] = 0x8C8C8C;
+        OVERVIEW_RGB[13] = 0xFFC107;                      // treasure
+    }
+
+    private final Image[] img;   // tile images, indexed by icon code
+    private final int cellSize;  // native pixel size of each cell
+    private final Map<Integer, Image[]> scaledTiles = new HashMap<>();
+    private BufferedImage overview;  // reused scratch image for overview painting
+
+    /**
+     * @param img tile images indexed by icon code; all square and the same size
+     */
+    public BoardRenderer(Image[] img) {
+        this.img = img;
+        this.cellSize = img[0].getWidth(null);
+        scaledTiles.put(cellSize, img);
+    }
+
+    /** Load the tile images (0.png to 13.png) from the given folder. */
+    public static Image[] loadIcons(String dir) {
+        Image[] img = new Image[NUM_IMAGES];
+        for (int i = 0; i < NUM_IMAGES; i++) {
+            img[i] = new ImageIcon(dir + i + ".png").getImage();
+        }
+        return img;
+    }
+
+    /** Native pixel size of one cell. */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Icon code for the cell at (r,c) as the player sees it:
+     * 10 = covered, 11 = flagged, 9 = mine, 13 = treasure, 0–8 = adjacent count.
+     */
+    public static int iconCode(BoardModel model, int r, int c) {
+        if (!model.isRevealed(r, c)) {
+            return model.isFlagged(r, c) ? 11 : 10;  // flagged or covered
+        } else if (model.isMine(r, c)) {
+            return 9;                                // mine icon
+        } else if (model.hasTreasure(r, c)) {
+            return 13;                               // treasure icon
+        } else {
+            return model.getAdjMines(r, c);          // number of adjacent mines
+        }
+    }
+
+    /**
+     * Draw the board at its native size with its top-left corner at (0,0).
+     * @param observer image observer passed to drawImage (may be null)
+     */
+    public void paint(Graphics g, BoardModel model, ImageObserver observer) {
+        paintTiles(g, model, img, cellSize, observer);
+    }
+
+    /**
+     * Draw the board at the given zoom with its top-left corner at (0,0).
+     * @param pixelsPerCell on-screen size of one cell; whole numbers of at least
+     *                      MIN_TILE_PX use tiles, anything smaller the overview
+     */
+    public void paint(Graphics g, BoardModel model, double pixelsPerCell) {
+        int px = (int) pixelsPerCell;
+        if (px >= MIN_TILE_PX && px == pixelsPerCell) {
+            paintTiles(g, model, tilesFor(px), px, null);
+        } else {
+            paintOverview(g, model, pixelsPerCell);
+        }
+    }
+
+    /** Draw every cell that intersects the clip, using tiles of size px. */
+    private void paintTiles(Graphics g, BoardModel model, Image[] tiles, int px, ImageObserver observer) {
+        Rectangle clip = g.getClipBounds();
+        int r0 = 0, r1 = model.getRows() - 1;
+        int c0 = 0, c1 = model.getCols() - 1;
+        if (clip != null) {
+            r0 = Math.max(r0, clip.y / px);
+            r1 = Math.min(r1, (clip.y + clip.height - 1) / px);
+            c0 = Math.max(c0, clip.x / px);
+            c1 = Math.min(c1, (clip.x + clip.width - 1) / px);
+        }
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                g.drawImage(tiles[iconCode(model, r, c)], c * px, r * px, observer);
+            }
+        }
+    }
+
+    /**
+     * Draw the clip area as flat colours, one pixel per block of cells.  Every
+     * cell of a block is looked at, a word of a bit plane at a time, so a flag
+     * or a single revealed cell shows at any zoom, and repainting the pixel of
+     * a changed cell always shows the change.
+     */
+    private void paintOverview(Graphics g, BoardModel model, double pixelsPerCell) {
+        int width  = (int) Math.ceil(model.getCols() * pixelsPerCell);
+        int height = (int) Math.ceil(model.getRows() * pixelsPerCell);
+        Rectangle area = new Rectangle(0, 0, width, height);
+        Rectangle clip = g.getClipBounds();
+        if (clip != null) area = area.intersection(clip);
+        if (area.isEmpty()) return;
+
+        if (overview == null || overview.getWidth() < area.width || overview.getHeight() < area.height) {
+            overview = new BufferedImage(
+                Math.max(area.width, overview == null ? 0 : overview.getWidth()),
+                Math.max(area.height, overview == null ? 0 : overview.getHeight()),
+                BufferedImage.TYPE_INT_RGB);
+        }
+        int[] pixels = ((DataBufferInt) overview.getRaster().getDataBuffer()).getData();
+        int stride = overview.getWidth();
+        double cellsPerPixel = 1.0 / pixelsPerCell;
+
+        int rows = model.getRows(), cols = model.getCols();
+        BitBoard bits = model.bits();
+        for (int y = 0; y < area.height; y++) {
+            // pixel y covers rows [r0, r1): at least one, more when zoomed out
+            int r0 = Math.min(rows - 1, (int) ((area.y + y) * cellsPerPixel));
+            int r1 = Math.min(rows, Math.max(r0 + 1, (int) ((area.y + y + 1) * cellsPerPixel)));
+            int row = y * stride;
+            for (int x = 0; x < area.width; x++) {
+                int c0 = Math.min(cols - 1, (int) ((area.x + x) * cellsPerPixel));
+                int c1 = Math.min(cols, Math.max(c0 + 1, (int) ((area.x + x + 1) * cellsPerPixel)));
+                pixels[row + x] = OVERVIEW_RGB[blockCode(bits, cols, r0, r1, c0, c1)];
+            }
+        }
+        g.drawImage(overview,
+            area.x, area.y, area.x + area.width, area.y + area.height,
+            0, 0, area.width, area.height, null);
+    }
+
+    /**
+     * Icon code standing for the block of cells [r0, r1) x [c0, c1), by
+     * priority: a flag, then a revealed mine, then a revealed treasure, then a
+     * covered cell; a fully revealed block shows its highest adjacent count.
+     */
+    static int blockCode(BitBoard bits, int cols, int r0, int r1, int c0, int c1) {
+        long[] mine = bits.mineWords(), revealed = bits.revealedWords();
+        long[] flagged = bits.flaggedWords(), treasure = bits.treasureWords();
+        boolean covered = false, revealedMine = false, revealedTreasure = false;
+        for (int r = r0; r < r1; r++) {
+            int from = r * cols + c0, last = r * cols + c1 - 1;
+            for (int w = from >>> 6; w <= last >>> 6; w++) {
+                long mask = -1L;
+                if (w == from >>> 6) mask &= -1L << from;          // shift counts are taken mod 64
+                if (w == last >>> 6) mask &= -1L >>> (63 - (last & 63));
+                long rev = revealed[w] & mask;
+                if ((flagged[w] & mask & ~rev) != 0) return 11;   // a revealed cell shows what it is
+                covered          |= rev != mask;
+                revealedMine     |= (rev & mine[w]) != 0;
+                revealedTreasure |= (rev & treasure[w]) != 0;
+            }
+        }
+        if (revealedMine)     return 9;
+        if (revealedTreasure) return 13;
+        if (covered)          return 10;
+        int most = 0;
+        for (int r = r0; r < r1; r++) {
+            for (int i = r * cols + c0; i < r * cols + c1; i++) most = Math.max(most, bits.getAdjMines(i));
+        }
+        return most;
+    }
+
+    /** Tiles scaled to px pixels, built on first use and cached. */
+    private Image[] tilesFor(int px) {
+        Image[] tiles = scaledTiles.get(px);
+        if (tiles == null) {
+            tiles = new Image[NUM_IMAGES];
+            for (int i = 0; i < NUM_IMAGES; i++) {
+                BufferedImage t = new BufferedImage(px, px, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = t.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, px > cellSize
+                    ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR   // keep pixel art crisp
+                    : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(img[i], 0, 0, px, px, null);
+                g.dispose();
+                tiles[i] = t;
+            }
+            scaledTiles.put(px, tiles);
+        }
+        return tiles;
+    }
+}
@@ -2,18 +2,26 @@
 package minesweeper;
 
 import java.io.*;
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class CSVUtils {
 
  
+    /** Size of the read/write buffer used for board files. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
     /**
      * Loads a Minesweeper board model from a CSV file.
      *
      * The CSV file must have the following format:
      * - The first line is the header containing three values:
-     *   1. The level token, which can either be a predefined enum value (e.g., "EASY")
+     *   1. The level token, which can either be a predefined enum value (e.g., "EXPERT")
      *      or a custom dimension string in the format "rowsxcols_mines" (e.g., "10x10_20").
+     *      Custom dimensions may be any size, not just those of a predefined level.
      *   2. The number of flags left.
      *   3. The number of treasures on the board.
      * - The subsequent lines represent the board grid, where each cell is encoded as an integer.
@@ -21,53 +29,65 @@ public class CSVUtils {
      * The method performs the following steps:
      * 1. Parses the level token to determine the board dimensions and mine count.
      * 2. Reads the number of flags left and the treasure count from the header.
-     * 3. Constructs a BoardModel instance and populates it with cell data from the CSV.
+     * 3. Constructs a blank BoardModel and populates it with cell data from the CSV.
      * 4. Recomputes adjacent mine counts based on the loaded mine positions.
      * 5. Restores the flags left and treasure count to the model.
      *
+     * The grid is parsed straight from the file channel's byte buffer, so no
+     * String is created per line or per cell.
+     *
      * @param path The file path to the CSV file.
      * @return A fully initialized {@link BoardModel} instance based on the CSV data.
      * @throws IOException If the file cannot be read, the format is invalid, or the level token is unrecognized.
      */
     public static BoardModel loadFromCSV(String path) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String[] header = br.readLine().split(",");
+        try (FileChannel ch = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            ByteReader in = new ByteReader(ch);
+            String[] header = in.readLine().split(",");
             if (header.length < 3) {
                 throw new IOException("Invalid CSV header");
             }
 
             // 1) Parse the level token (enum or dimension string)
-            Level level;
+            int rows, cols, mines, treasures;
             try {
-                level = Level.valueOf(header[0]);
+                Level level = Level.valueOf(header[0]);
+                rows      = level.rows();
+                cols      = level.cols();
+                mines     = level.mines();
+                treasures = level.treasures();
             } catch (IllegalArgumentException ex) {
                 String[] parts = header[0].split("[x_]");
                 if (parts.length != 3) {
                     throw new IOException("Unknown level token: " + header[0]);
                 }
-                int rows  = Integer.parseInt(parts[0]);
-                int cols  = Integer.parseInt(parts[1]);
-                int mines = Integer.parseInt(parts[2]);
-                level = Arrays.stream(Level.values())
-                              .filter(l -> l.rows()==rows && l.cols()==cols && l.mines()==mines)
-                              .findFirst()
-                              .orElseThrow(() -> new IOException("Unknown level dims: " + header[0]));
+                try {
+                    rows  = Integer.parseInt(parts[0]);
+                    cols  = Integer.parseInt(parts[1]);
+                    mines = Integer.parseInt(parts[2]);
+                } catch (NumberFormatException nfe) {
+                    throw new IOException("Unknown level dims: " + header[0]);
+                }
+                treasures = treasuresFor(rows, cols, mines);
             }
 
             // 2) Flags & treasures
-            int flagsLeft     = Integer.parseInt(header[1]);
-            int treasureCount = Integer.parseInt(header[2]);
+            int flagsLeft     = Integer.parseInt(header[1].trim());
+            int treasureCount = Integer.parseInt(header[2].trim());
 
-            // 3) Build model and load each code
-            BoardModel model = new BoardModel(
-                level.rows(), level.cols(), level.mines(), level.treasures()
-            );
+            // 3) Build a blank model and load each code
+            BoardModel model;
+            try {
+                model = BoardModel.blank(rows, cols, mines, treasures);
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("Invalid board size " + header[0] + ": " + ex.getMessage());
+            }
 
-            for (int r = 0; r < model.getRows(); r++) {
-                String[] tokens = br.readLine().split(",");
-                for (int c = 0; c < model.getCols(); c++) {
-                    int code = Integer.parseInt(tokens[c]);
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < cols; c++) {
+                    int code = in.readInt(r, c);
                     model.setCellFromCode(r, c, code);
+                    in.endValue(r, c, c == cols - 1);
                 }
             }
 
@@ -82,6 +102,16 @@ public class CSVUtils {
         }
     }
 
+    /** Treasures for a board of the given size: the matching Level's, or none for custom sizes. */
+    private static int treasuresFor(int rows, int cols, int mines) {
+        for (Level l : Level.values()) {
+            if (l.rows() == rows && l.cols() == cols && l.mines() == mines) {
+                return l.treasures();
+            }
+        }
+        return 0;
+    }
+
 /**
  * Loads a test Minesweeper board from a CSV file.
  * The file is expected to contain exactly 8 lines, each with 8 comma-separated integer values.
@@ -111,9 +141,6 @@ public static int[][] loadTestBoard(String path) throws IOException {
 }
 
 
-    /**
-     * Write out a current board to CSV: header + grid codes.
-     */
     /**
      * Saves the current state of the game board to a CSV file.
      *
@@ -122,25 +149,139 @@ public static int[][] loadTestBoard(String path) throws IOException {
      * board will be written, where each cell is represented by a code determined
      * by the `codeForCell` method of the `BoardModel`.
      *
+     * Codes are formatted straight into one reusable byte buffer that is written
+     * to the file channel whenever it fills up.
+     *
      * @param model The `BoardModel` object representing the current state of the game.
      * @param path  The file path where the CSV file will be saved.
      * @throws IOException If an I/O error occurs while writing to the file.
      */
     public static void saveToCSV(BoardModel model, String path) throws IOException {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(path))) {
+        try (FileChannel ch = FileChannel.open(Paths.get(path),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] newline = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+
             // header
-            pw.printf("%s,%d,%d%n",
+            buf.put(String.format("%s,%d,%d",
                 model.getLevel(),
                 model.getFlagsLeft(),
                 model.getTreasureCount()
-            );
-            // grid
+            ).getBytes(StandardCharsets.US_ASCII));
+            buf.put(newline);
+
+            // grid; each cell is at most "13," so flush when 4 bytes + newline may not fit
+            int cols = model.getCols();
             for (int r = 0; r < model.getRows(); r++) {
-                for (int c = 0; c < model.getCols(); c++) {
-                    pw.print(model.codeForCell(r, c));
-                    if (c < model.getCols() - 1) pw.print(',');
+                for (int c = 0; c < cols; c++) {
+                    if (buf.remaining() < 4 + newline.length) {
+                        drain(ch, buf);
+                    }
+                    int code = model.codeForCell(r, c);
+                    if (code >= 10) {
+                        buf.put((byte) ('0' + code / 10));
+                        code %= 10;
+                    }
+                    buf.put((byte) ('0' + code));
+                    if (c < cols - 1) buf.put((byte) ',');
+                }
+                buf.put(newline);
+            }
+            drain(ch, buf);
+        }
+    }
+
+    /** Write out everything buffered so far and clear the buffer. */
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+        buf.clear();
+    }
+
+    /**
+     * Minimal forward-only reader that parses a board file straight from
+     * a FileChannel through one reusable buffer.
+     */
+    private static class ByteReader {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+        private boolean eof;
+
+        ByteReader(FileChannel ch) {
+            this.ch = ch;
+            buf.flip();  // start empty
+        }
+
+        /** Next byte, or -1 at end of file. */
+        private int next() throws IOException {
+            if (!buf.hasRemaining()) {
+                if (eof) return -1;
+                buf.clear();
+                int n;
+                do {
+                    n = ch.read(buf);
+                } while (n == 0);
+                buf.flip();
+                if (n < 0) {
+                    eof = true;
+                    return -1;
+                }
+            }
+            return buf.get() & 0xFF;
+        }
+
+        /** Next byte without consuming it, or -1 at end of file. */
+        private int peek() throws IOException {
+            int b = next();
+            if (b >= 0) buf.position(buf.position() - 1);
+            return b;
+        }
+
+        /** Read one line as text (used only for the header). */
+        String readLine() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            int b;
+            while ((b = next()) >= 0 && b != '\n') {
+                if (b != '\r') sb.append((char) b);
+            }
+            if (b < 0 && sb.length() == 0) {
+                throw new IOException("Empty file");
+            }
+            return sb.toString();
+        }
+
+        /** Parse the non-negative integer for cell (r,c). */
+        int readInt(int r, int c) throws IOException {
+            int b = next();
+            while (b == ' ') b = next();
+            if (b < '0' || b > '9') {
+                throw new IOException(b < 0
+                    ? "Unexpected end of file at row " + r + ", column " + c
+                    : "Invalid value at row " + r + ", column " + c);
+            }
+            int v = b - '0';
+            while ((b = peek()) >= '0' && b <= '9') {
+                next();
+                v = v * 10 + (b - '0');
+                if (v > 99) throw new IOException("Invalid value at row " + r + ", column " + c);
+            }
+            return v;
+        }
+
+        /** Consume the separator after cell (r,c): ',' within a row, a line end after the last. */
+        void endValue(int r, int c, boolean lastInRow) throws IOException {
+            int b = next();
+            while (b == ' ') b = next();
+            if (lastInRow) {
+                if (b == '\r') b = next();
+                if (b != '\n' && b >= 0) {
+                    throw new IOException("Row " + r + " has more than " + (c + 1) + " values");
                 }
-                pw.println();
+            } else if (b != ',') {
+                throw new IOException("Row " + r + " has only " + (c + 1) + " values");
             }
         }
     }
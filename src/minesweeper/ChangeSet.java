@@ -0,0 +1,73 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * ChangeSet lists the cells changed by the most recent move on a {@link BoardModel},
+ * together with their bounding rectangle.  The model reuses one ChangeSet for
+ * every move, so its contents are only valid until the next move.
+ *
+ * Cells are given as row-major indices ({@code r * cols + c}).  Each entry also
+ * records the cell's state just before and just after that change, as a
+ * combination of the MINE, REVEALED, FLAGGED and TREASURE bits.  A cell changed
+ * twice in one batch (e.g. flagged then unflagged) has two entries.
+ */
+public class ChangeSet {
+    // cell state bits, see oldState() / newState()
+    public static final int MINE     = 1;
+    public static final int REVEALED = 2;
+    public static final int FLAGGED  = 4;
+    public static final int TREASURE = 8;
+
+    private final int cols;
+    private int[] cells = new int[64];
+    private byte[] states = new byte[64];  // old state in the low nibble, new state in the high
+    private int size;
+    private int minRow, maxRow, minCol, maxCol;
+
+    ChangeSet(int cols) {
+        this.cols = cols;
+        clear();
+    }
+
+    /** Forget all cells; called by the model at the start of every move. */
+    void clear() {
+        size   = 0;
+        minRow = minCol = Integer.MAX_VALUE;
+        maxRow = maxCol = -1;
+    }
+
+    /** Record cell index i as changed from state before to state after. */
+    void add(int i, int before, int after) {
+        if (size == cells.length) {
+            cells  = Arrays.copyOf(cells, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+        }
+        states[size] = (byte) (before | after << 4);
+        cells[size++] = i;
+        int r = i / cols, c = i - r * cols;
+        if (r < minRow) minRow = r;
+        if (r > maxRow) maxRow = r;
+        if (c < minCol) minCol = c;
+        if (c > maxCol) maxCol = c;
+    }
+
+    /** Number of changed cells. */
+    public int size()          { return size; }
+    public boolean isEmpty()   { return size == 0; }
+
+    /** Row-major index of the k-th changed cell. */
+    public int cell(int k)     { return cells[k]; }
+    public int row(int k)      { return cells[k] / cols; }
+    public int col(int k)      { return cells[k] % cols; }
+
+    /** State bits of the k-th changed cell before and after its change. */
+    public int oldState(int k) { return states[k] & 0xF; }
+    public int newState(int k) { return (states[k] >> 4) & 0xF; }
+
+    // Bounding rectangle of all changed cells (inclusive); meaningless when empty.
+    public int getMinRow()     { return minRow; }
+    public int getMaxRow()     { return maxRow; }
+    public int getMinCol()     { return minCol; }
+    public int getMaxCol()     { return maxCol; }
+}
@@ -11,16 +11,25 @@ import java.io.IOException;
  * and updates game status (flags, treasures, timer).
  */
 public class GUIView extends JFrame implements IView {
-    private static final int NUM_IMAGES = 14;           // total number of tile icons
+    /** Where the game in progress is journaled, so it can be resumed after a crash. */
+    public static final String AUTOSAVE =
+        System.getProperty("user.home") + "/.minesweeper/autosave";
+
+    private static final Dimension MAX_VIEW = new Dimension(1200, 800);  // largest initial board view
     private final BoardModel model;                     // game state model
-    private final Image[] img = new Image[NUM_IMAGES];  // loaded tile images
-    private final int CELL_SIZE;                        // pixel size of each cell
+    private final BoardRenderer renderer;               // draws the tiles
+    private final int CELL_SIZE;                        // native pixel size of each cell
+    private final double[] zoomLevels;                  // available pixels-per-cell, ascending
+    private int zoomIndex;                              // current entry in zoomLevels
+    private final JPanel boardPanel;                    // draws the visible part of the board
+    private final JScrollPane boardScroll;              // scrolls boardPanel
 
     private final JLabel flagsLabel    = new JLabel();  // displays remaining flags
     private final JLabel treasureLabel = new JLabel();  // displays collected treasures
     private final JLabel timerLabel    = new JLabel();  // displays elapsed time
     private int secondsElapsed = 0;                     // timer counter
     private final Timer swingTimer;                     // Swing timer for updating the timerLabel
+    private GameJournal journal;                        // autosave; null if it could not be started
 
     /**
      * Constructs the GUI, loads resources, and initializes components.
@@ -30,8 +39,18 @@ public class GUIView extends JFrame implements IView {
         super("Minesweeper");
         this.model = model;
 
-        loadIcons();  // load tile images from resources
-        CELL_SIZE = img[0].getWidth(null);  // assume all icons are square and same size
+        // load tile images from resources
+        renderer = new BoardRenderer(BoardRenderer.loadIcons(BoardRenderer.ICON_DIR));
+        CELL_SIZE = renderer.getCellSize();  // assume all icons are square and same size
+
+        // zoom from 8 cells per pixel up to double size; native size is the default
+        zoomLevels = new double[] { 0.125, 0.25, 0.5, 1, 2, 4, 8, CELL_SIZE, 2 * CELL_SIZE };
+        zoomIndex  = 7;
+        // large boards start zoomed out far enough to fit the window, if possible
+        while (zoomIndex > 0 && (boardSize().width > MAX_VIEW.width
+                              || boardSize().height > MAX_VIEW.height)) {
+            zoomIndex--;
+        }
 
         // --- Menu Bar for saving game ---
         JMenuBar menuBar = new JMenuBar();
@@ -39,15 +58,40 @@ public class GUIView extends JFrame implements IView {
         JMenuItem saveItem = new JMenuItem("Save Game...");
         fileMenu.add(saveItem);
         menuBar.add(fileMenu);
+
+        // --- Edit menu: take back and replay moves ---
+        JMenu editMenu = new JMenu("Edit");
+        JMenuItem undoItem = new JMenuItem("Undo");
+        JMenuItem redoItem = new JMenuItem("Redo");
+        int shortcut = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        undoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, shortcut));
+        redoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, shortcut));
+        undoItem.addActionListener(e -> model.undo());
+        redoItem.addActionListener(e -> model.redo());
+        editMenu.add(undoItem);
+        editMenu.add(redoItem);
+        menuBar.add(editMenu);
+
+        // --- View menu for zooming (also Ctrl + mouse wheel) ---
+        JMenu viewMenu = new JMenu("View");
+        JMenuItem zoomInItem  = new JMenuItem("Zoom In");
+        JMenuItem zoomOutItem = new JMenuItem("Zoom Out");
+        zoomInItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_EQUALS, shortcut));
+        zoomOutItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_MINUS, shortcut));
+        zoomInItem.addActionListener(e -> zoom(+1, null));
+        zoomOutItem.addActionListener(e -> zoom(-1, null));
+        viewMenu.add(zoomInItem);
+        viewMenu.add(zoomOutItem);
+        menuBar.add(viewMenu);
         setJMenuBar(menuBar);
 
-        // Action for "Save Game" menu item
+        // Action for "Save Game" menu item (a .msb name saves in binary, otherwise CSV)
         saveItem.addActionListener(e -> {
             JFileChooser chooser = new JFileChooser();
             if (chooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
                 String path = chooser.getSelectedFile().getAbsolutePath();
                 try {
-                    CSVUtils.saveToCSV(model, path);
+                    MSBUtils.saveGame(model, path);
                     JOptionPane.showMessageDialog(this, "Game saved to " + path);
                 } catch (IOException ex) {
                     JOptionPane.showMessageDialog(this,
@@ -72,34 +116,32 @@ public class GUIView extends JFrame implements IView {
         topPanel.add(treasureLabel);
         topPanel.add(timerLabel);
 
-        // --- Board Panel: custom painting of cells ---
-        JPanel boardPanel = new JPanel() {
+        // --- Board Panel: paints only the cells inside the clip (the visible, dirty area) ---
+        boardPanel = new JPanel() {
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                // iterate over each cell and draw correct icon
-                for (int r = 0; r < model.getRows(); r++) {
-                    for (int c = 0; c < model.getCols(); c++) {
-                        Cell cell = model.getGrid()[r][c];
-                        int code;
-                        if (!cell.isRevealed()) {
-                            code = cell.isFlagged() ? 11 : 10;  // flagged or covered
-                        } else if (cell.isMine()) {
-                            code = 9;                           // mine icon
-                        } else if (cell.hasTreasure()) {
-                            code = 13;                          // treasure icon
-                        } else {
-                            code = cell.getAdjMines();         // number of adjacent mines
-                        }
-                        g.drawImage(img[code], c * CELL_SIZE, r * CELL_SIZE, this);
-                    }
-                }
+                renderer.paint(g, model, zoomLevels[zoomIndex]);
             }
         };
-        boardPanel.setPreferredSize(new Dimension(
-            model.getCols() * CELL_SIZE,
-            model.getRows() * CELL_SIZE
-        ));
+        boardPanel.setPreferredSize(boardSize());
+
+        // Scroll pane sized to the board, up to a comfortable window
+        boardScroll = new JScrollPane(boardPanel);
+        boardScroll.getVerticalScrollBar().setUnitIncrement(CELL_SIZE);
+        boardScroll.getHorizontalScrollBar().setUnitIncrement(CELL_SIZE);
+        Dimension full = boardSize();
+        boardScroll.getViewport().setPreferredSize(new Dimension(
+            Math.min(full.width, MAX_VIEW.width), Math.min(full.height, MAX_VIEW.height)));
+
+        // Ctrl + mouse wheel zooms around the pointer; a plain wheel scrolls
+        boardPanel.addMouseWheelListener(e -> {
+            if (e.isControlDown()) {
+                zoom(e.getWheelRotation() < 0 ? +1 : -1, e.getPoint());
+            } else {
+                boardScroll.dispatchEvent(SwingUtilities.convertMouseEvent(boardPanel, e, boardScroll));
+            }
+        });
 
         // Mouse listener to handle clicks on the board
         boardPanel.addMouseListener(new MouseAdapter() {
@@ -108,23 +150,22 @@ public class GUIView extends JFrame implements IView {
                 // ignore clicks if game already ended
                 if (model.isGameOver() || model.isGameWon()) return;
 
-                int row = e.getY() / CELL_SIZE;
-                int col = e.getX() / CELL_SIZE;
+                double ppc = zoomLevels[zoomIndex];
+                int row = (int) (e.getY() / ppc);
+                int col = (int) (e.getX() / ppc);
 
+                // the model's change events repaint the cells and update the labels
                 if (SwingUtilities.isRightMouseButton(e)) {
                     // right-click: toggle flag
                     model.markCell(row, col);
-                    flagsLabel.setText("Flags: " + model.getFlagsLeft());
                 } else {
                     // left-click: reveal cell
                     model.revealCell(row, col);
-                    treasureLabel.setText("Treasures: " + model.getTreasureCount());
 
                     if (model.isGameOver()) {
                         // stop timer and reveal all mines on loss
                         swingTimer.stop();
                         revealAllMines();
-                        boardPanel.repaint();
                         JOptionPane.showMessageDialog(GUIView.this, "You hit a mine! Game Over.");
                         dispose();
                         SwingUtilities.invokeLater(() -> Launcher.main(new String[0]));
@@ -140,14 +181,29 @@ public class GUIView extends JFrame implements IView {
                         return;
                     }
                 }
-                boardPanel.repaint();  // refresh board state
             }
         });
 
         // Layout setup
         setLayout(new BorderLayout(0, 5));
         add(topPanel,    BorderLayout.NORTH);
-        add(boardPanel,  BorderLayout.CENTER);
+        add(boardScroll, BorderLayout.CENTER);
+
+        model.addListener(this);  // repaint from the model's change events
+
+        // journal every move so an interrupted game can be resumed from the launcher;
+        // this replaces any earlier autosave, which the launcher confirms first
+        try {
+            journal = new GameJournal(model, AUTOSAVE);
+        } catch (IOException ex) {
+            System.err.println("Autosave disabled: " + ex.getMessage());
+        }
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                closeJournal(false);  // keep the files: the game can be resumed
+            }
+        });
 
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         pack();
@@ -156,25 +212,94 @@ public class GUIView extends JFrame implements IView {
     }
 
     /**
-     * Load tile images (0.png to 13.png) from the resources folder.
+     * Repaint just the bounding rectangle of the cells changed by the last move;
+     * Swing clips painting to it, so a click costs time proportional to what changed.
      */
-    private void loadIcons() {
-        for (int i = 0; i < NUM_IMAGES; i++) {
-            img[i] = new ImageIcon("src/resources/" + i + ".png").getImage();
+    @Override
+    public void cellsChanged(BoardModel m, ChangeSet changes) {
+        double ppc = zoomLevels[zoomIndex];
+        int x0 = (int) Math.floor(changes.getMinCol() * ppc);
+        int y0 = (int) Math.floor(changes.getMinRow() * ppc);
+        int x1 = (int) Math.ceil((changes.getMaxCol() + 1) * ppc);
+        int y1 = (int) Math.ceil((changes.getMaxRow() + 1) * ppc);
+        boardPanel.repaint(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    /** Pixel size of the whole board at the current zoom. */
+    private Dimension boardSize() {
+        double ppc = zoomLevels[zoomIndex];
+        return new Dimension(
+            (int) Math.ceil(model.getCols() * ppc),
+            (int) Math.ceil(model.getRows() * ppc)
+        );
+    }
+
+    /**
+     * Step the zoom level in or out, keeping the board point under the anchor
+     * (or the centre of the view) in place.
+     * @param step   +1 to zoom in, -1 to zoom out
+     * @param anchor point in board panel coordinates, or null for the view centre
+     */
+    private void zoom(int step, Point anchor) {
+        int next = Math.max(0, Math.min(zoomLevels.length - 1, zoomIndex + step));
+        if (next == zoomIndex) return;
+
+        JViewport viewport = boardScroll.getViewport();
+        Point view = viewport.getViewPosition();
+        if (anchor == null) {
+            anchor = new Point(view.x + viewport.getWidth() / 2, view.y + viewport.getHeight() / 2);
         }
+        double factor = zoomLevels[next] / zoomLevels[zoomIndex];
+        zoomIndex = next;
+
+        Dimension size = boardSize();
+        boardPanel.setPreferredSize(size);
+        boardPanel.revalidate();
+        boardScroll.validate();  // resize the view now so the new position isn't clamped
+        int x = (int) (anchor.x * factor) - (anchor.x - view.x);
+        int y = (int) (anchor.y * factor) - (anchor.y - view.y);
+        viewport.setViewPosition(new Point(
+            Math.max(0, Math.min(x, size.width - viewport.getWidth())),
+            Math.max(0, Math.min(y, size.height - viewport.getHeight()))));
+        boardPanel.repaint();
     }
 
     /**
      * Reveal all mines on the board (used when the player loses).
      */
     private void revealAllMines() {
-        for (Cell[] rowArr : model.getGrid()) {
-            for (Cell cell : rowArr) {
-                if (cell.isMine()) {
-                    cell.setRevealed(true);
-                }
-            }
+        model.revealAllMines();
+    }
+
+    /** Keep the flag and treasure counters in step with the model. */
+    @Override
+    public void statusChanged(BoardModel m, GameStats stats) {
+        flagsLabel.setText("Flags: " + stats.getFlagsLeft());
+        treasureLabel.setText("Treasures: " + stats.getTreasureCount());
+    }
+
+    @Override
+    public void boardReset(BoardModel m) {
+        boardPanel.repaint();
+    }
+
+    @Override
+    public void dispose() {
+        model.removeListener(this);
+        closeJournal(model.isGameOver() || model.isGameWon());
+        super.dispose();
+    }
+
+    /** Flush and close the autosave journal, deleting it if the game is finished. */
+    private void closeJournal(boolean finished) {
+        if (journal == null) return;
+        try {
+            if (finished) journal.discard();
+            else          journal.close();
+        } catch (IOException ex) {
+            System.err.println("Autosave not closed cleanly: " + ex.getMessage());
         }
+        journal = null;
     }
 
     @Override
@@ -0,0 +1,495 @@
+// GameJournal.java
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * GameJournal makes a game survive a crash by logging every move as it is
+ * made, so no full-board save is needed per move.
+ *
+ * Files, for a base path B and generation g:
+ * <pre>
+ *   B.g.msb       snapshot of the board (see {@link MSBUtils})
+ *   B.g.journal   the moves made since that snapshot
+ * </pre>
+ * The journal starts with the magic bytes 'M' 'S' 'J' 0x1A and a u16 version,
+ * followed by frames of {@code u32 length, u32 CRC32, payload}.  The payload
+ * holds moves in the {@link MoveScript} binary encoding, so a move costs two
+ * to four bytes plus its share of the frame header.
+ *
+ * Moves are collected in memory and committed as one frame with one fsync
+ * (group commit): as soon as {@code groupMoves} are pending, and otherwise
+ * at most {@code groupMillis} after the first pending move.  Every
+ * {@code snapshotEvery} moves, and whenever the board is reset or a move is
+ * undone or redone, a new snapshot is written and a new generation begins.
+ * The older files are deleted once the new ones are on disk.
+ *
+ * After the first snapshot, all file work happens on one background thread,
+ * so the thread making moves (the Event Dispatch Thread, in the GUI) never
+ * waits for the disk: it only copies moves, or for a snapshot the board's
+ * bit planes, into memory for the writer.
+ *
+ * {@link #recover} loads the newest readable snapshot and replays the valid
+ * frames of its journal; a torn or corrupt frame at the end (a crash mid-write)
+ * ends the replay.
+ */
+public class GameJournal implements BoardListener, AutoCloseable {
+    /** Default number of moves between snapshots. */
+    public static final int DEFAULT_SNAPSHOT_EVERY = 10_000;
+    /** Default number of pending moves that forces a commit. */
+    public static final int DEFAULT_GROUP_MOVES = 256;
+    /** Default longest wait, in milliseconds, before pending moves are committed. */
+    public static final long DEFAULT_GROUP_MILLIS = 50;
+
+    private static final byte[] MAGIC = { 'M', 'S', 'J', 0x1A };
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 2;
+    private static final int FRAME_HEADER = 8;
+
+    private final BoardModel model;
+    private final Path dir;
+    private final String name;
+    private final int snapshotEvery, groupMoves;
+    private final long groupMillis;
+    private final ScheduledExecutorService writer;   // does all file work after the first snapshot, in order
+
+    // guarded by this; filled by the thread making moves
+    private byte[] pending = new byte[FRAME_HEADER + 1024];
+    private int pendingLen = FRAME_HEADER;  // frame header is filled in at commit
+    private int pendingMoves;
+    private int movesSinceSnapshot;
+    private int snapshotsQueued;       // handed to the writer but not yet on disk
+    private boolean commitScheduled, commitQueued;
+    private boolean closed;
+    private IOException failure;       // first error; journaling stops after it
+
+    // writer thread only (and the constructor and close, when it is not running)
+    private long gen;                  // current generation
+    private FileChannel journal;
+    private byte[] spare = new byte[pending.length];   // swapped with pending at each commit
+
+    /**
+     * Start journaling a game with the default settings.  A snapshot of the
+     * board is written at once, replacing any earlier journal at this path.
+     *
+     * @param model the game to protect
+     * @param base  path prefix for the journal files, e.g. "saves/autosave"
+     * @throws IOException if the first snapshot cannot be written
+     */
+    public GameJournal(BoardModel model, String base) throws IOException {
+        this(model, base, DEFAULT_SNAPSHOT_EVERY, DEFAULT_GROUP_MOVES, DEFAULT_GROUP_MILLIS);
+    }
+
+    /**
+     * Start journaling a game.  A snapshot of the board is written at once,
+     * replacing any earlier journal at this path.
+     *
+     * @param model         the game to protect
+     * @param base          path prefix for the journal files
+     * @param snapshotEvery moves between snapshots
+     * @param groupMoves    pending moves that force a commit
+     * @param groupMillis   longest wait before pending moves are committed
+     * @throws IOException if the first snapshot cannot be written
+     */
+    public GameJournal(BoardModel model, String base,
+                       int snapshotEvery, int groupMoves, long groupMillis) throws IOException {
+        if (snapshotEvery < 1 || groupMoves < 1 || groupMillis < 1) {
+            throw new IllegalArgumentException("Journal intervals must be positive");
+        }
+        Path path = Paths.get(base).toAbsolutePath();
+        this.model = model;
+        this.dir = path.getParent();
+        this.name = path.getFileName().toString();
+        this.snapshotEvery = snapshotEvery;
+        this.groupMoves = groupMoves;
+        this.groupMillis = groupMillis;
+        Files.createDirectories(dir);
+
+        List<Long> existing = generations(dir, name);
+        gen = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+        startGeneration(model);
+
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-commit");
+            t.setDaemon(true);
+            return t;
+        });
+        model.addListener(this);
+    }
+
+    // --- Recording (on the thread making moves; no file work) ---
+
+    @Override
+    public synchronized void movesApplied(BoardModel m, long[] moves, int off, int len) {
+        if (failure != null || closed) return;
+        for (int k = 0; k < len; k++) {
+            if (pendingLen + MoveScript.MAX_BINARY_MOVE > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pendingLen = MoveScript.encode(moves[off + k], pending, pendingLen);
+        }
+        pendingMoves += len;
+        movesSinceSnapshot += len;
+        if (movesSinceSnapshot >= snapshotEvery) {
+            queueSnapshot();
+        } else if (pendingMoves >= groupMoves) {
+            if (!commitQueued) {
+                commitQueued = true;
+                writer.execute(this::commitPending);
+            }
+        } else if (!commitScheduled) {
+            commitScheduled = true;
+            writer.schedule(this::commitPending, groupMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void cellsChanged(BoardModel m, ChangeSet changes) {
+        // the moves are what gets logged; see movesApplied
+    }
+
+    /**
+     * A move was undone or redone.  The journal only holds moves, so the new
+     * position is captured by starting a new generation.
+     */
+    @Override
+    public synchronized void historyStepped(BoardModel m, boolean redo) {
+        boardReset(m);
+    }
+
+    /** The board was reset or reloaded: its moves no longer apply, so start from a snapshot. */
+    @Override
+    public synchronized void boardReset(BoardModel m) {
+        if (failure != null || closed) return;
+        queueSnapshot();
+    }
+
+    /**
+     * Hand the writer a copy of the board to write as the next generation,
+     * along with the moves still pending for the current one.
+     */
+    private void queueSnapshot() {
+        BoardModel copy = copyOf(model);
+        byte[] frame = null;
+        if (pendingMoves > 0) {
+            frame = Arrays.copyOf(pending, pendingLen);
+            pendingLen = FRAME_HEADER;
+            pendingMoves = 0;
+        }
+        movesSinceSnapshot = 0;
+        snapshotsQueued++;
+        byte[] last = frame;
+        writer.execute(() -> writeSnapshot(last, copy));
+    }
+
+    /** A detached copy of the board's state, enough for a snapshot. */
+    private static BoardModel copyOf(BoardModel m) {
+        BoardModel copy = BoardModel.blank(m.getRows(), m.getCols(), m.getTotalMines(), m.getTotalTreasures());
+        BitBoard from = m.bits(), to = copy.bits();
+        System.arraycopy(from.mineWords(), 0, to.mineWords(), 0, from.mineWords().length);
+        System.arraycopy(from.revealedWords(), 0, to.revealedWords(), 0, from.revealedWords().length);
+        System.arraycopy(from.flaggedWords(), 0, to.flaggedWords(), 0, from.flaggedWords().length);
+        System.arraycopy(from.treasureWords(), 0, to.treasureWords(), 0, from.treasureWords().length);
+        copy.setFlagsLeft(m.getFlagsLeft());
+        copy.setTreasureCount(m.getTreasureCount());
+        copy.setGameOver(m.isGameOver());
+        return copy;
+    }
+
+    /**
+     * Commit any pending moves now, without waiting for the group.
+     * @throws IOException if journaling has failed, now or earlier
+     */
+    public void sync() throws IOException {
+        Future<?> done;
+        synchronized (this) {
+            if (failure != null) throw failure;
+            if (closed) return;
+            done = writer.submit(this::commitPending);   // runs after any snapshot already queued
+        }
+        await(done);
+        synchronized (this) {
+            if (failure != null) throw failure;
+        }
+    }
+
+    /** The error that stopped journaling, or null if it is healthy. */
+    public synchronized IOException getFailure() {
+        return failure;
+    }
+
+    /** Commit pending moves, stop listening and close the journal; the files stay for recovery. */
+    @Override
+    public void close() throws IOException {
+        model.removeListener(this);
+        IOException before;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            before = failure;
+            writer.execute(this::commitPending);   // after everything queued so far
+        }
+        writer.shutdown();
+        try {
+            awaitWriter();
+        } finally {
+            if (journal != null) journal.close();
+            journal = null;
+        }
+        IOException after = getFailure();
+        if (after != before) throw after;
+    }
+
+    /** Close the journal and delete its files, e.g. once the game has ended. */
+    public void discard() throws IOException {
+        model.removeListener(this);
+        synchronized (this) {
+            closed = true;
+        }
+        writer.shutdownNow();
+        awaitWriter();
+        if (journal != null) journal.close();
+        journal = null;
+        delete(dir, name);
+    }
+
+    private void awaitWriter() throws IOException {
+        try {
+            while (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                // still writing
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the journal", ex);
+        }
+    }
+
+    private static void await(Future<?> done) throws IOException {
+        try {
+            done.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while syncing the journal", ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Journal commit failed", ex.getCause());
+        }
+    }
+
+    // --- Writing (on the writer thread) ---
+
+    /**
+     * Write the pending moves as one frame and fsync.  The lock is held only
+     * to swap buffers, so moves keep being recorded during the write.
+     */
+    private void commitPending() {
+        byte[] frame;
+        int len;
+        synchronized (this) {
+            commitScheduled = false;
+            commitQueued = false;
+            // while a snapshot is queued, pending moves belong to its generation, not the current one
+            if (failure != null || snapshotsQueued > 0 || pendingMoves == 0 || journal == null) return;
+            frame = pending;
+            len = pendingLen;
+            pending = spare;
+            spare = frame;
+            pendingLen = FRAME_HEADER;
+            pendingMoves = 0;
+        }
+        try {
+            writeFrame(frame, len);
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /** Finish the current generation and start the next from the given copy of the board. */
+    private void writeSnapshot(byte[] lastFrame, BoardModel copy) {
+        try {
+            if (lastFrame != null) writeFrame(lastFrame, lastFrame.length);
+            startGeneration(copy);
+        } catch (IOException ex) {
+            fail(ex);
+        }
+        synchronized (this) {
+            snapshotsQueued--;
+        }
+        commitPending();   // moves made since the snapshot was taken
+    }
+
+    /** Fill in the header of frame[0, len) and append it to the journal with an fsync. */
+    private void writeFrame(byte[] frame, int len) throws IOException {
+        int payload = len - FRAME_HEADER;
+        CRC32 crc = new CRC32();
+        crc.update(frame, FRAME_HEADER, payload);
+        ByteBuffer buf = ByteBuffer.wrap(frame, 0, len);
+        buf.putInt(0, payload).putInt(4, (int) crc.getValue());
+        while (buf.hasRemaining()) journal.write(buf);
+        journal.force(false);
+    }
+
+    /**
+     * Start a new generation: close the journal, write the snapshot and an
+     * empty journal, then remove the previous generation.
+     */
+    private void startGeneration(BoardModel board) throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        long next = gen + 1;
+        Path snap = file(dir, name, next, ".msb");
+        Path tmp = file(dir, name, next, ".msb.tmp");
+        MSBUtils.saveToMSB(board, tmp.toString());
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Files.move(tmp, snap, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        journal = FileChannel.open(file(dir, name, next, ".journal"),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).putShort((short) VERSION);
+        head.flip();
+        while (head.hasRemaining()) journal.write(head);
+        journal.force(true);
+        syncDir(dir);
+
+        for (long g : generations(dir, name)) {
+            if (g < next) {
+                Files.deleteIfExists(file(dir, name, g, ".msb"));
+                Files.deleteIfExists(file(dir, name, g, ".journal"));
+            }
+        }
+        gen = next;
+    }
+
+    private synchronized void fail(IOException ex) {
+        if (failure == null) {
+            failure = ex;
+            System.err.println("Journal disabled: " + ex.getMessage());
+        }
+    }
+
+    // --- Recovery ---
+
+    /**
+     * @return true if a journal exists at this path (e.g. a game was not closed cleanly)
+     */
+    public static boolean exists(String base) throws IOException {
+        Path path = Paths.get(base).toAbsolutePath();
+        return !generations(path.getParent(), path.getFileName().toString()).isEmpty();
+    }
+
+    /**
+     * Rebuild the journaled game: the newest readable snapshot plus every
+     * intact move logged after it.
+     *
+     * @param base path prefix the journal was written with
+     * @return the recovered board, or null if there is nothing to recover
+     * @throws IOException if the files exist but cannot be read
+     */
+    public static BoardModel recover(String base) throws IOException {
+        Path path = Paths.get(base).toAbsolutePath();
+        Path dir = path.getParent();
+        String name = path.getFileName().toString();
+        List<Long> gens = generations(dir, name);
+        IOException last = null;
+        for (int k = gens.size() - 1; k >= 0; k--) {
+            BoardModel model;
+            try {
+                model = MSBUtils.loadFromMSB(file(dir, name, gens.get(k), ".msb").toString());
+            } catch (IOException ex) {
+                last = ex;   // damaged snapshot: fall back to the previous generation
+                continue;
+            }
+            replay(model, file(dir, name, gens.get(k), ".journal"));
+            return model;
+        }
+        if (last != null) throw last;
+        return null;
+    }
+
+    /** Apply every intact frame of the journal to the model. */
+    private static void replay(BoardModel model, Path journal) throws IOException {
+        if (!Files.exists(journal)) return;
+        byte[] data = Files.readAllBytes(journal);
+        ByteBuffer in = ByteBuffer.wrap(data);
+        if (data.length < HEADER_SIZE) return;
+        for (byte b : MAGIC) {
+            if (in.get() != b) throw new IOException("Not a journal file: " + journal);
+        }
+        if (in.getShort() != VERSION) throw new IOException("Unsupported journal version: " + journal);
+
+        CRC32 crc = new CRC32();
+        while (in.remaining() >= FRAME_HEADER) {
+            int len = in.getInt();
+            int sum = in.getInt();
+            if (len < 0 || len > in.remaining()) break;   // torn write
+            crc.reset();
+            crc.update(data, in.position(), len);
+            if ((int) crc.getValue() != sum) break;        // corrupt frame
+            ByteBuffer frame = in.slice();
+            frame.limit(len);
+            in.position(in.position() + len);
+            while (frame.hasRemaining()) {
+                long m = MoveScript.decode(frame);
+                if (Move.typeOf(m) == Move.Type.MARK) model.markCell(Move.rowOf(m), Move.colOf(m));
+                else                                  model.revealCell(Move.rowOf(m), Move.colOf(m));
+            }
+        }
+    }
+
+    // --- Files ---
+
+    private static Path file(Path dir, String name, long gen, String ext) {
+        return dir.resolve(name + "." + gen + ext);
+    }
+
+    /** Generations with a snapshot at this path, oldest first. */
+    private static List<Long> generations(Path dir, String name) throws IOException {
+        List<Long> gens = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return gens;
+        String prefix = name + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*.msb")) {
+            for (Path p : files) {
+                String g = p.getFileName().toString();
+                g = g.substring(prefix.length(), g.length() - ".msb".length());
+                try {
+                    gens.add(Long.parseLong(g));
+                } catch (NumberFormatException ex) {
+                    // some other file that happens to share the prefix
+                }
+            }
+        }
+        gens.sort(null);
+        return gens;
+    }
+
+    private static void delete(Path dir, String name) throws IOException {
+        for (long g : generations(dir, name)) {
+            Files.deleteIfExists(file(dir, name, g, ".msb"));
+            Files.deleteIfExists(file(dir, name, g, ".journal"));
+        }
+    }
+
+    /** fsync a directory so new and renamed entries survive a crash (not possible on every OS). */
+    private static void syncDir(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException ex) {
+            // directories cannot be opened for sync on some platforms; the rename is still atomic
+        }
+    }
+}
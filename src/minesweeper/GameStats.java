@@ -0,0 +1,54 @@
+package minesweeper;
+
+/**
+ * GameStats is an immutable snapshot of a {@link BoardModel}'s running counters.
+ * The model keeps these counters up to date as cells are revealed and flagged,
+ * so taking a snapshot is constant time regardless of board size.
+ */
+public class GameStats {
+    private final int cellsRevealed;      // revealed cells of any kind
+    private final int unrevealedSafe;     // non-mine cells still covered
+    private final int correctFlags;       // flags sitting on mines
+    private final int incorrectFlags;     // flags sitting on safe cells
+    private final int revealedTreasures;  // treasures uncovered so far
+    private final int flagsLeft;
+    private final int treasureCount;      // treasures currently held
+    private final boolean gameOver;
+
+    /**
+     * Constructs a snapshot; normally obtained from {@link BoardModel#getStats()}.
+     */
+    public GameStats(int cellsRevealed, int unrevealedSafe,
+                     int correctFlags, int incorrectFlags,
+                     int revealedTreasures, int flagsLeft,
+                     int treasureCount, boolean gameOver) {
+        this.cellsRevealed     = cellsRevealed;
+        this.unrevealedSafe    = unrevealedSafe;
+        this.correctFlags      = correctFlags;
+        this.incorrectFlags    = incorrectFlags;
+        this.revealedTreasures = revealedTreasures;
+        this.flagsLeft         = flagsLeft;
+        this.treasureCount     = treasureCount;
+        this.gameOver          = gameOver;
+    }
+
+    public int getCellsRevealed()     { return cellsRevealed; }
+    public int getUnrevealedSafe()    { return unrevealedSafe; }
+    public int getCorrectFlags()      { return correctFlags; }
+    public int getIncorrectFlags()    { return incorrectFlags; }
+    public int getRevealedTreasures() { return revealedTreasures; }
+    public int getFlagsLeft()         { return flagsLeft; }
+    public int getTreasureCount()     { return treasureCount; }
+    public boolean isGameOver()       { return gameOver; }
+
+    /** True when every safe cell has been revealed. */
+    public boolean isGameWon()        { return unrevealedSafe == 0; }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "revealed=%d, safeLeft=%d, flags=%d/%d (correct/incorrect), treasures=%d found, %d held, flagsLeft=%d%s",
+            cellsRevealed, unrevealedSafe, correctFlags, incorrectFlags,
+            revealedTreasures, treasureCount, flagsLeft, gameOver ? ", GAME OVER" : "");
+    }
+}
@@ -4,8 +4,12 @@ package minesweeper;
  * IView defines the contract for all view implementations in the Minesweeper game.
  * It allows the game to swap between different presentation modes (e.g., GUIView, TextView)
  * without changing game logic.
+ *
+ * A view is also a {@link BoardListener}: once registered with the model it is
+ * sent the cells each move changed, and can update just those.  Views that
+ * don't override the event methods are simply redrawn with display().
  */
-public interface IView {
+public interface IView extends BoardListener {
 
     /**
      * Display or refresh the current state of the board model to the user.
@@ -22,4 +26,21 @@ public interface IView {
      * @return a Move object representing the user's chosen action (row, column, action type)
      */
     Move promptMove();
+
+    /**
+     * Incremental update after a move.  By default the whole board is redrawn.
+     *
+     * @param model   the BoardModel containing the latest game state
+     * @param changes the cells changed by the move
+     */
+    @Override
+    default void cellsChanged(BoardModel model, ChangeSet changes) {
+        display(model);
+    }
+
+    /** The whole board changed; by default it is redrawn. */
+    @Override
+    default void boardReset(BoardModel model) {
+        display(model);
+    }
 }
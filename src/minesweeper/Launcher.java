@@ -9,8 +9,22 @@ import java.io.IOException;
  * Launcher provides the starting menu for the Minesweeper application.
  * Users can start a new game, load a saved game, enter testing mode with custom boards,
  * or play in a text-based mode. All UI operations run on the Swing Event Dispatch Thread.
+ * New boards come ready-made from a {@link BoardPool} filled in the background,
+ * so starting a game does not generate one on the Event Dispatch Thread.
  */
 public class Launcher {
+    // one for the whole process: the menu comes back after every game
+    private static BoardPool pool;
+
+    /** The board pool, started on first use and closed when the application exits. */
+    static synchronized BoardPool pool() {
+        if (pool == null) {
+            BoardPool p = new BoardPool(BoardPool.DEFAULT_DEPTH);
+            Runtime.getRuntime().addShutdownHook(new Thread(p::close, "board-pool-close"));
+            pool = p;
+        }
+        return pool;
+    }
 
     /**
      * Entry point of the application. Sets up the main menu with buttons
@@ -19,19 +33,41 @@ public class Launcher {
      * @param args CLI arguments (unused)
      */
     public static void main(String[] args) {
+        // Start generating boards while the menu comes up
+        BoardPool pool = pool();
+
         // Ensure GUI code runs on the Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             JFrame menu = new JFrame("Minesweeper Launcher");
             menu.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
             menu.setSize(400, 250);
-            // 4 rows, 1 column layout for buttons with spacing
-            menu.setLayout(new GridLayout(4, 1, 10, 10));
+            // An autosave journal left behind means a game was interrupted
+            boolean canResume = hasAutosave();
+            // one row per button, 1 column layout with spacing
+            menu.setLayout(new GridLayout(canResume ? 5 : 4, 1, 10, 10));
 
             // Create menu buttons
             JButton newGameBtn    = new JButton("Start New Game");
             JButton loadGameBtn   = new JButton("Load Saved Game");
             JButton testModeBtn   = new JButton("Enter Testing Mode");
             JButton textModeBtn   = new JButton("Play in Text-Based Mode");
+            JButton resumeBtn     = new JButton("Resume Interrupted Game");
+
+            // --- Resume: rebuild the last game from its autosave journal ---
+            resumeBtn.addActionListener(e -> {
+                try {
+                    BoardModel model = GameJournal.recover(GUIView.AUTOSAVE);
+                    if (model == null) throw new IOException("No autosave found");
+                    menu.dispose();
+                    new GUIView(model);
+                } catch (IOException ex) {
+                    JOptionPane.showMessageDialog(menu,
+                        "Failed to resume game:\n" + ex.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE
+                    );
+                }
+            });
 
             // --- New Game: choose difficulty and launch GUIView ---
             newGameBtn.addActionListener(e -> {
@@ -44,23 +80,22 @@ public class Launcher {
                     Level.values(),
                     Level.BEGINNER
                 );
-                if (level != null) {
-                    // Initialize model with chosen parameters
-                    BoardModel model = new BoardModel(
-                        level.rows(), level.cols(), level.mines(), level.treasures()
-                    );
+                if (level != null && confirmReplaceAutosave(menu, canResume)) {
+                    // Take a ready board with the chosen parameters
+                    BoardModel model = pool.take(level);
                     menu.dispose();  // close launcher
                     new GUIView(model);  // open GUI mode
                 }
             });
 
-            // --- Load Saved Game: load CSV then launch GUIView ---
+            // --- Load Saved Game: load CSV or .msb (detected from the file) then launch GUIView ---
             loadGameBtn.addActionListener(e -> {
                 JFileChooser chooser = new JFileChooser();
-                if (chooser.showOpenDialog(menu) == JFileChooser.APPROVE_OPTION) {
+                if (chooser.showOpenDialog(menu) == JFileChooser.APPROVE_OPTION
+                        && confirmReplaceAutosave(menu, canResume)) {
                     File file = chooser.getSelectedFile();
                     try {
-                        BoardModel model = CSVUtils.loadFromCSV(file.getAbsolutePath());
+                        BoardModel model = MSBUtils.loadGame(file.getAbsolutePath());
                         menu.dispose();
                         new GUIView(model);
                     } catch (IOException ex) {
@@ -77,7 +112,8 @@ public class Launcher {
             // --- Testing Mode: load test board, validate, then launch GUIView ---
             testModeBtn.addActionListener(e -> {
                 JFileChooser chooser = new JFileChooser();
-                if (chooser.showOpenDialog(menu) == JFileChooser.APPROVE_OPTION) {
+                if (chooser.showOpenDialog(menu) == JFileChooser.APPROVE_OPTION
+                        && confirmReplaceAutosave(menu, canResume)) {
                     File file = chooser.getSelectedFile();
                     try {
                         // Load custom board configuration (mines & treasures)
@@ -110,9 +146,7 @@ public class Launcher {
                     Level.BEGINNER
                 );
                 if (level != null) {
-                    BoardModel model = new BoardModel(
-                        level.rows(), level.cols(), level.mines(), level.treasures()
-                    );
+                    BoardModel model = pool.take(level);
                     menu.dispose();
                     // Start game loop in text mode
                     new GameController(model, new TextView()).startGame();
@@ -120,6 +154,7 @@ public class Launcher {
             });
 
             // Add buttons to the frame
+            if (canResume) menu.add(resumeBtn);
             menu.add(newGameBtn);
             menu.add(loadGameBtn);
             menu.add(testModeBtn);
@@ -130,4 +165,28 @@ public class Launcher {
             menu.setVisible(true);
         });
     }
+
+    /** Whether an autosave journal was left behind, i.e. a game was interrupted. */
+    private static boolean hasAutosave() {
+        try {
+            return GameJournal.exists(GUIView.AUTOSAVE);
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * A new GUI game journals over the autosave, losing the interrupted game
+     * that Resume would bring back, so ask first.
+     *
+     * @return true if there is no autosave or the player agreed to replace it
+     */
+    private static boolean confirmReplaceAutosave(JFrame menu, boolean canResume) {
+        return !canResume || JOptionPane.showConfirmDialog(menu,
+            "Starting this game discards the interrupted game.\nContinue?",
+            "Replace Interrupted Game",
+            JOptionPane.OK_CANCEL_OPTION,
+            JOptionPane.WARNING_MESSAGE
+        ) == JOptionPane.OK_OPTION;
+    }
 }
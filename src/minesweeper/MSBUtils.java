@@ -0,0 +1,278 @@
+// MSBUtils.java
+package minesweeper;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes the compact binary save format (.msb), the counterpart of
+ * {@link CSVUtils}.
+ *
+ * Layout (all integers big-endian):
+ * <pre>
+ *   magic          4 bytes  'M' 'S' 'B' 0x1A
+ *   version        u16      currently 1
+ *   options        u16      bit 0: planes are run-length encoded
+ *   checksum       u32      CRC32 of every byte that follows it
+ *   rows, cols     i32, i32
+ *   mines          i32      total mines
+ *   treasures      i32      total treasures
+ *   flagsLeft      i32
+ *   treasureCount  i32      treasures currently held
+ *   gameOver       u8
+ *   4 bit planes   mine, revealed, flagged, treasure; (rows*cols+7)/8 bytes each,
+ *                  bit i of the plane = cell i in row-major order
+ * </pre>
+ * Run-length encoded planes use PackBits: a control byte n in 0..127 is
+ * followed by n+1 literal bytes, and n in -127..-1 repeats the next byte 1-n
+ * times.  Covered regions and the sparse flag/treasure planes collapse to a
+ * few bytes each.
+ *
+ * Unlike CSV, the format keeps hidden treasures.  Adjacency counts are not
+ * stored; they are rebuilt from the mine plane on load.
+ */
+public class MSBUtils {
+    /** File extension for binary saves. */
+    public static final String EXTENSION = ".msb";
+
+    private static final byte[] MAGIC = { 'M', 'S', 'B', 0x1A };
+    private static final int VERSION = 1;
+    private static final int OPT_RLE = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Saves the game to a binary file, run-length encoding the bit planes.
+     *
+     * @param model the board to save
+     * @param path  the destination file
+     * @throws IOException if the file cannot be written
+     */
+    public static void saveToMSB(BoardModel model, String path) throws IOException {
+        saveToMSB(model, path, true);
+    }
+
+    /**
+     * Saves the game to a binary file.
+     *
+     * @param model the board to save
+     * @param path  the destination file
+     * @param rle   whether to run-length encode the bit planes
+     * @throws IOException if the file cannot be written
+     */
+    public static void saveToMSB(BoardModel model, String path, boolean rle) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(path)) {
+            BufferedOutputStream bout = new BufferedOutputStream(fos, BUFFER_SIZE);
+            DataOutputStream head = new DataOutputStream(bout);
+            head.write(MAGIC);
+            head.writeShort(VERSION);
+            head.writeShort(rle ? OPT_RLE : 0);
+            head.writeInt(0);  // checksum, filled in below
+
+            CRC32 crc = new CRC32();
+            // buffer above the checksum too, so the CRC is updated in blocks, not per byte
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new CheckedOutputStream(bout, crc), BUFFER_SIZE));
+            out.writeInt(model.getRows());
+            out.writeInt(model.getCols());
+            out.writeInt(model.getTotalMines());
+            out.writeInt(model.getTotalTreasures());
+            out.writeInt(model.getFlagsLeft());
+            out.writeInt(model.getTreasureCount());
+            out.writeByte(model.isGameOver() ? 1 : 0);
+
+            BitBoard bits = model.bits();
+            int planeBytes = (bits.size() + 7) >>> 3;
+            byte[] plane = new byte[planeBytes];
+            for (long[] words : new long[][] {
+                    bits.mineWords(), bits.revealedWords(),
+                    bits.flaggedWords(), bits.treasureWords() }) {
+                toBytes(words, plane);
+                if (rle) packBits(plane, out);
+                else     out.write(plane);
+            }
+            out.flush();
+
+            // patch the checksum into the header
+            ByteBuffer sum = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+            sum.flip();
+            fos.getChannel().write(sum, 8);
+        }
+    }
+
+    /**
+     * Loads a game saved with {@link #saveToMSB}.
+     *
+     * @param path the file to read
+     * @return the restored board
+     * @throws IOException if the file cannot be read, is not a valid .msb file,
+     *                     or fails its checksum
+     */
+    public static BoardModel loadFromMSB(String path) throws IOException {
+        try (InputStream fis = new FileInputStream(path)) {
+            BufferedInputStream bin = new BufferedInputStream(fis, BUFFER_SIZE);
+            DataInputStream head = new DataInputStream(bin);
+            byte[] magic = new byte[MAGIC.length];
+            try {
+                head.readFully(magic);
+            } catch (EOFException ex) {
+                throw new IOException("Not an .msb file");
+            }
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not an .msb file");
+            }
+            int version = head.readUnsignedShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported .msb version: " + version);
+            }
+            int options  = head.readUnsignedShort();
+            int expected = head.readInt();
+
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new CheckedInputStream(bin, crc), BUFFER_SIZE));
+            try {
+                int rows          = in.readInt();
+                int cols          = in.readInt();
+                int mines         = in.readInt();
+                int treasures     = in.readInt();
+                int flagsLeft     = in.readInt();
+                int treasureCount = in.readInt();
+                boolean gameOver  = in.readUnsignedByte() != 0;
+
+                BoardModel model;
+                try {
+                    model = BoardModel.blank(rows, cols, mines, treasures);
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException("Invalid board in header: " + ex.getMessage());
+                }
+
+                BitBoard bits = model.bits();
+                int planeBytes = (bits.size() + 7) >>> 3;
+                byte[] plane = new byte[planeBytes];
+                for (long[] words : new long[][] {
+                        bits.mineWords(), bits.revealedWords(),
+                        bits.flaggedWords(), bits.treasureWords() }) {
+                    if ((options & OPT_RLE) != 0) unpackBits(in, plane);
+                    else                          in.readFully(plane);
+                    fromBytes(plane, words, bits.size());
+                }
+
+                if (in.read() != -1) {
+                    throw new IOException("Trailing data after board");
+                }
+                if ((int) crc.getValue() != expected) {
+                    throw new IOException("Checksum mismatch, file is corrupt");
+                }
+
+                model.refreshAfterBulkLoad();
+                model.setFlagsLeft(flagsLeft);
+                model.setTreasureCount(treasureCount);
+                model.setGameOver(gameOver);
+                return model;
+            } catch (EOFException ex) {
+                throw new IOException("Truncated .msb file");
+            }
+        }
+    }
+
+    /**
+     * @return true if the file starts with the .msb magic number
+     */
+    public static boolean isMSB(String path) throws IOException {
+        try (InputStream in = new FileInputStream(path)) {
+            byte[] magic = new byte[MAGIC.length];
+            return in.readNBytes(magic, 0, magic.length) == magic.length
+                && Arrays.equals(magic, MAGIC);
+        }
+    }
+
+    /**
+     * Loads a saved game in either format, detected from the file contents.
+     *
+     * @param path a .msb or CSV save file
+     * @return the restored board
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public static BoardModel loadGame(String path) throws IOException {
+        return isMSB(path) ? loadFromMSB(path) : CSVUtils.loadFromCSV(path);
+    }
+
+    /**
+     * Saves a game in the format chosen by the file name: .msb is binary,
+     * anything else is CSV.
+     */
+    public static void saveGame(BoardModel model, String path) throws IOException {
+        if (path.toLowerCase().endsWith(EXTENSION)) saveToMSB(model, path);
+        else                                        CSVUtils.saveToCSV(model, path);
+    }
+
+    // --- Plane packing ---
+
+    /** Little-endian byte view of a bit plane: bit i of the board = bit (i&7) of byte i/8. */
+    private static void toBytes(long[] words, byte[] out) {
+        for (int j = 0; j < out.length; j++) {
+            out[j] = (byte) (words[j >>> 3] >>> ((j & 7) << 3));
+        }
+    }
+
+    /** Inverse of toBytes; bits past the last cell are dropped. */
+    private static void fromBytes(byte[] in, long[] words, int cells) {
+        Arrays.fill(words, 0L);
+        for (int j = 0; j < in.length; j++) {
+            words[j >>> 3] |= (in[j] & 0xFFL) << ((j & 7) << 3);
+        }
+        int tail = cells & 63;
+        if (tail != 0) {
+            words[words.length - 1] &= (1L << tail) - 1;
+        }
+    }
+
+    /** PackBits-encode data onto out. */
+    private static void packBits(byte[] data, OutputStream out) throws IOException {
+        int i = 0, n = data.length;
+        while (i < n) {
+            // length of the run starting at i
+            int run = 1;
+            while (i + run < n && run < 128 && data[i + run] == data[i]) run++;
+            if (run >= 2) {
+                out.write(1 - run);
+                out.write(data[i]);
+                i += run;
+                continue;
+            }
+            // literal block: stop where a run of 2+ starts
+            int start = i;
+            i++;
+            while (i < n && i - start < 128
+                    && !(i + 1 < n && data[i] == data[i + 1])) {
+                i++;
+            }
+            out.write(i - start - 1);
+            out.write(data, start, i - start);
+        }
+    }
+
+    /** Decode exactly out.length bytes of PackBits data. */
+    private static void unpackBits(DataInputStream in, byte[] out) throws IOException {
+        int i = 0;
+        while (i < out.length) {
+            int h = in.readByte();
+            if (h >= 0) {
+                int len = h + 1;
+                if (i + len > out.length) throw new IOException("Corrupt run-length data");
+                in.readFully(out, i, len);
+                i += len;
+            } else if (h != -128) {
+                int len = 1 - h;
+                if (i + len > out.length) throw new IOException("Corrupt run-length data");
+                byte b = in.readByte();
+                Arrays.fill(out, i, i + len, b);
+                i += len;
+            }
+        }
+    }
+}
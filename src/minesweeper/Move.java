@@ -14,6 +14,8 @@ public class Move {
         MARK    // toggle a flag on the cell at the given coordinates
     }
 
+    private static final long MARK_BIT = 1L << 63;  // set in packed MARK moves
+
     private final Type type; // the action type
     private final int row;   // zero-based row index of the target cell
     private final int col;   // zero-based column index of the target cell
@@ -31,6 +33,42 @@ public class Move {
         this.col = col;
     }
 
+    /**
+     * Packs this move into a single long; see {@link #pack(Type, int, int)}.
+     */
+    public long pack() {
+        return pack(type, row, col);
+    }
+
+    /**
+     * Packs a move into a single long for batch use (see BoardModel.applyMoves):
+     * bit 63 is set for MARK, bits 32-62 hold the row and the low 32 bits the column.
+     *
+     * @param type the move type
+     * @param row  non-negative row index
+     * @param col  non-negative column index
+     * @return the packed move
+     */
+    public static long pack(Type type, int row, int col) {
+        long packed = ((long) row << 32) | (col & 0xFFFFFFFFL);
+        return type == Type.MARK ? packed | MARK_BIT : packed;
+    }
+
+    /** Type of a packed move. */
+    public static Type typeOf(long packed) {
+        return (packed & MARK_BIT) != 0 ? Type.MARK : Type.REVEAL;
+    }
+
+    /** Row of a packed move. */
+    public static int rowOf(long packed) {
+        return (int) ((packed & ~MARK_BIT) >>> 32);
+    }
+
+    /** Column of a packed move. */
+    public static int colOf(long packed) {
+        return (int) packed;
+    }
+
     /**
      * Returns the type of this move.
      *
@@ -0,0 +1,120 @@
+package minesweeper;
+
+/**
+ * MoveHistory keeps the undo/redo record of a {@link BoardModel} as deltas:
+ * for every move, only the cells it changed, each with its state before and
+ * after.  The counters (flags left, treasures, cells revealed, ...) are not
+ * stored; the model derives their change from the cell states, so undoing or
+ * redoing a move costs time proportional to the cells it changed.
+ *
+ * Entries live in one ring buffer of longs, packed as
+ * <pre>
+ *   bits 0-3   state before (ChangeSet MINE/REVEALED/FLAGGED/TREASURE bits)
+ *   bits 4-7   state after
+ *   bit  8     first entry of a move
+ *   bit  9     this reveal ended the game
+ *   bits 16-   cell index
+ * </pre>
+ * The buffer grows on demand up to a fixed number of entries; past that, the
+ * oldest moves are forgotten.  Positions are counted from the start of the
+ * history and never wrap, so {@code head <= cursor <= tail}: moves in
+ * [head, cursor) can be undone and moves in [cursor, tail) redone.
+ */
+final class MoveHistory {
+    static final long START = 1L << 8;
+    static final long ENDED = 1L << 9;
+    private static final int CELL_SHIFT = 16;
+    private static final int INITIAL = 256;
+
+    private final int capacity;        // most entries kept: the limit rounded up to a power of two
+    private long[] ring = new long[0];
+    private long head, cursor, tail;
+
+    /**
+     * @param limit most cell changes remembered (rounded up to a power of two);
+     *              0 keeps no history
+     */
+    MoveHistory(int limit) {
+        if (limit < 0 || limit > 1 << 30) {
+            throw new IllegalArgumentException("History limit out of range: " + limit);
+        }
+        this.capacity = limit <= 1 ? limit : Integer.highestOneBit(limit - 1) << 1;
+    }
+
+    /** Forget everything, e.g. after the board was reset or reloaded. */
+    void clear() {
+        head = cursor = tail = 0;
+    }
+
+    /**
+     * Record changes [from, to) of the change set as one move, replacing
+     * anything that could have been redone.
+     *
+     * @param ended true if the move ended the game (by revealing a mine)
+     */
+    void record(ChangeSet changes, int from, int to, boolean ended) {
+        int n = to - from;
+        if (n == 0 || capacity == 0) return;
+        tail = cursor;
+        if (n > capacity) {        // a single move bigger than the whole history
+            clear();
+            return;
+        }
+        reserve(n);
+        for (int k = from; k < to; k++) {
+            int before = changes.oldState(k), after = changes.newState(k);
+            long e = (long) changes.cell(k) << CELL_SHIFT | before | after << 4;
+            if (k == from) e |= START;
+            if (ended && (after & ~before & ChangeSet.REVEALED) != 0
+                      && (after & ChangeSet.MINE) != 0) {
+                e |= ENDED;
+            }
+            ring[(int) (tail++ & (ring.length - 1))] = e;
+        }
+        cursor = tail;
+    }
+
+    /** Make room for n more entries, growing the ring or dropping the oldest moves. */
+    private void reserve(int n) {
+        long need = tail - head + n;
+        if (need > ring.length && ring.length < capacity) {
+            int size = Math.max(Math.min(INITIAL, capacity), ring.length);
+            while (size < need && size < capacity) size <<= 1;
+            long[] next = new long[size];
+            for (long p = head; p < tail; p++) {
+                next[(int) (p & (size - 1))] = ring[(int) (p & (ring.length - 1))];
+            }
+            ring = next;
+        }
+        while (tail - head + n > ring.length) {
+            // drop the oldest move: skip to the next move start
+            do head++; while (head < tail && (entry(head) & START) == 0);
+        }
+    }
+
+    boolean canUndo() { return cursor > head; }
+    boolean canRedo() { return cursor < tail; }
+
+    /** Position of the first entry of the move before the cursor; call only if canUndo(). */
+    long undoStart() {
+        long p = cursor - 1;
+        while ((entry(p) & START) == 0) p--;
+        return p;
+    }
+
+    /** Position just past the last entry of the move after the cursor; call only if canRedo(). */
+    long redoEnd() {
+        long p = cursor + 1;
+        while (p < tail && (entry(p) & START) == 0) p++;
+        return p;
+    }
+
+    long cursor()            { return cursor; }
+    void setCursor(long p)   { cursor = p; }
+
+    long entry(long p)       { return ring[(int) (p & (ring.length - 1))]; }
+
+    static int cell(long e)   { return (int) (e >>> CELL_SHIFT); }
+    static int before(long e) { return (int) e & 0xF; }
+    static int after(long e)  { return (int) (e >>> 4) & 0xF; }
+}
@@ -0,0 +1,292 @@
+// MoveScript.java
+package minesweeper;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MoveScript reads a recorded stream of moves for batch replay with
+ * {@link BoardModel#applyMoves}.
+ *
+ * Two encodings are accepted, detected from the first bytes of the file:
+ * <ul>
+ *   <li>text: one move per line, {@code R row col} to reveal or {@code M row col}
+ *       to mark (either case), the same syntax TextView accepts.  Blank lines and
+ *       lines starting with '#' are skipped.</li>
+ *   <li>binary: the magic bytes 'M' 'S' 'M' 0x1A, then per move two unsigned
+ *       LEB128 varints, {@code row * 2 + (mark ? 1 : 0)} and {@code col}.  A move on
+ *       a board under 64 rows and 128 columns takes two bytes.</li>
+ * </ul>
+ *
+ * The file is memory-mapped in large windows and parsed in place: no String,
+ * Move or line buffer is created per move.  Moves are handed out in packed form
+ * (see {@link Move#pack}) into an array the caller reuses.
+ */
+public class MoveScript implements Closeable {
+    private static final byte[] MAGIC = { 'M', 'S', 'M', 0x1A };
+    private static final long WINDOW = 1L << 26;  // bytes mapped at a time
+    private static final int MAX_RECORD = 64;     // longest move we accept, in bytes
+    private static final long SKIP = Long.MAX_VALUE;  // blank line; never a parsed move (column -1)
+
+    private final FileChannel ch;
+    private final long fileSize;
+    private final boolean binary;
+    private MappedByteBuffer buf;
+    private long bufStart;     // file offset of buf position 0
+    private long line = 1;     // current line, for text error messages
+
+    private MoveScript(FileChannel ch) throws IOException {
+        this.ch = ch;
+        this.fileSize = ch.size();
+        map(0);
+        boolean magic = buf.remaining() >= MAGIC.length;
+        for (int k = 0; magic && k < MAGIC.length; k++) {
+            magic = buf.get(k) == MAGIC[k];
+        }
+        binary = magic;
+        if (binary) buf.position(MAGIC.length);
+    }
+
+    /**
+     * Opens a move script in either encoding.
+     *
+     * @param path the script file
+     * @return a reader positioned at the first move
+     * @throws IOException if the file cannot be opened
+     */
+    public static MoveScript open(String path) throws IOException {
+        FileChannel ch = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            return new MoveScript(ch);
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    /** Whether the script uses the binary encoding. */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Reads up to max moves.
+     *
+     * @param moves destination for packed moves (see {@link Move#pack})
+     * @param off   index of the first slot to fill
+     * @param max   most moves to read
+     * @return the number of moves read; 0 only at the end of the script
+     * @throws IOException if the script is malformed or cannot be read
+     */
+    public int read(long[] moves, int off, int max) throws IOException {
+        int n = 0;
+        while (n < max) {
+            ensure();
+            if (!buf.hasRemaining()) break;
+            long m = binary ? readBinary() : readText();
+            if (m == SKIP) continue;  // blank or comment line
+            moves[off + n++] = m;
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ch.close();
+    }
+
+    // --- Writing ---
+
+    /**
+     * Writes packed moves as a binary script.
+     *
+     * @param moves packed moves (see {@link Move#pack})
+     * @param count number of moves to write
+     * @param path  destination file
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeBinary(long[] moves, int count, String path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(path), 1 << 16)) {
+            out.write(MAGIC);
+            byte[] record = new byte[MAX_BINARY_MOVE];
+            for (int k = 0; k < count; k++) {
+                out.write(record, 0, encode(moves[k], record, 0));
+            }
+        }
+    }
+
+    /**
+     * Writes packed moves as a text script, one {@code R row col} or
+     * {@code M row col} line each.
+     *
+     * @param moves packed moves (see {@link Move#pack})
+     * @param count number of moves to write
+     * @param path  destination file
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeText(long[] moves, int count, String path) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(path), StandardCharsets.US_ASCII), 1 << 16)) {
+            for (int k = 0; k < count; k++) {
+                long m = moves[k];
+                out.write(Move.typeOf(m) == Move.Type.MARK ? 'M' : 'R');
+                out.write(' ');
+                out.write(Integer.toString(Move.rowOf(m)));
+                out.write(' ');
+                out.write(Integer.toString(Move.colOf(m)));
+                out.write('\n');
+            }
+        }
+    }
+
+    // --- Binary move encoding, shared with GameJournal ---
+
+    /** Most bytes one binary move can take. */
+    static final int MAX_BINARY_MOVE = 10;
+
+    /**
+     * Write packed move m in the binary encoding.
+     * @return the position just after it; at most MAX_BINARY_MOVE bytes are used
+     */
+    static int encode(long m, byte[] out, int pos) {
+        pos = putVarint(out, pos, ((long) Move.rowOf(m) << 1) | (Move.typeOf(m) == Move.Type.MARK ? 1 : 0));
+        return putVarint(out, pos, Move.colOf(m) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Read one binary move.
+     * @throws IOException if the move is truncated or out of range
+     */
+    static long decode(ByteBuffer in) throws IOException {
+        long rowAndType = getVarint(in);
+        long col = getVarint(in);
+        if ((rowAndType >>> 1) > Integer.MAX_VALUE || col > Integer.MAX_VALUE) {
+            throw new IOException("Move out of range");
+        }
+        return Move.pack((rowAndType & 1) != 0 ? Move.Type.MARK : Move.Type.REVEAL,
+                         (int) (rowAndType >>> 1), (int) col);
+    }
+
+    private static int putVarint(byte[] out, int pos, long v) {
+        while (v >= 0x80) {
+            out[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out[pos++] = (byte) v;
+        return pos;
+    }
+
+    private static long getVarint(ByteBuffer in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!in.hasRemaining()) throw new IOException("Truncated move");
+            int b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IOException("Invalid varint");
+    }
+
+    // --- Parsing ---
+
+    /** Map the window starting at file offset pos. */
+    private void map(long pos) throws IOException {
+        long size = Math.min(WINDOW, fileSize - pos);
+        buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, size);
+        bufStart = pos;
+    }
+
+    /** Slide the window forward if fewer than MAX_RECORD bytes are left in it. */
+    private void ensure() throws IOException {
+        long pos = bufStart + buf.position();
+        if (buf.remaining() < MAX_RECORD && bufStart + buf.limit() < fileSize) {
+            map(pos);
+        }
+    }
+
+    /**
+     * Whether any bytes are left, sliding the window forward first if it has
+     * run out before the end of the file (a long run of spaces or digits).
+     */
+    private boolean more() throws IOException {
+        if (!buf.hasRemaining() && bufStart + buf.limit() < fileSize) {
+            map(bufStart + buf.position());
+        }
+        return buf.hasRemaining();
+    }
+
+    /** One binary move. */
+    private long readBinary() throws IOException {
+        try {
+            return decode(buf);
+        } catch (IOException ex) {
+            throw new IOException(ex.getMessage() + " at byte " + (bufStart + buf.position()));
+        }
+    }
+
+    /**
+     * One text line.
+     * @return the packed move, or SKIP for a blank or comment line
+     */
+    private long readText() throws IOException {
+        int b = skipSpaces();
+        if (b == '\n' || b == '\r' || b < 0) {
+            endLine();
+            return SKIP;
+        }
+        if (b == '#') {
+            while (more() && buf.get() != '\n') { }
+            line++;
+            return SKIP;
+        }
+        Move.Type type;
+        if (b == 'R' || b == 'r')      type = Move.Type.REVEAL;
+        else if (b == 'M' || b == 'm') type = Move.Type.MARK;
+        else throw new IOException("Line " + line + ": expected R or M");
+        buf.get();
+        int row = readNumber();
+        int col = readNumber();
+        int end = skipSpaces();
+        if (end >= 0 && end != '\n' && end != '\r') {
+            throw new IOException("Line " + line + ": unexpected text after move");
+        }
+        endLine();
+        return Move.pack(type, row, col);
+    }
+
+    /** Skip spaces and tabs; returns the next byte without consuming it, or -1 at end. */
+    private int skipSpaces() throws IOException {
+        while (more()) {
+            byte b = buf.get(buf.position());
+            if (b != ' ' && b != '\t') return b;
+            buf.get();
+        }
+        return -1;
+    }
+
+    /** Consume an optional CR and the LF that end a line. */
+    private void endLine() throws IOException {
+        if (more() && buf.get(buf.position()) == '\r') buf.get();
+        if (more() && buf.get(buf.position()) == '\n') buf.get();
+        line++;
+    }
+
+    private int readNumber() throws IOException {
+        int b = skipSpaces();
+        if (b < '0' || b > '9') {
+            throw new IOException("Line " + line + ": expected a number");
+        }
+        long v = 0;
+        while (more() && (b = buf.get(buf.position())) >= '0' && b <= '9') {
+            buf.get();
+            v = v * 10 + (b - '0');
+            if (v > Integer.MAX_VALUE) throw new IOException("Line " + line + ": number too large");
+        }
+        return (int) v;
+    }
+}
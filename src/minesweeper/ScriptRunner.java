@@ -0,0 +1,95 @@
+package minesweeper;
+
+import java.io.IOException;
+
+/**
+ * ScriptRunner replays a {@link MoveScript} against a board without any
+ * interaction, for regression runs over large recorded games.
+ *
+ * Unlike {@link GameController}, which displays the board around every move,
+ * moves are applied in batches through {@link BoardModel#applyMoves} and the
+ * view is only asked to display the board every N moves and once at the end.
+ * Moves after the game ends are not applied.
+ */
+public class ScriptRunner {
+    private static final int BATCH = 1 << 12;  // moves read and applied at a time
+
+    private final BoardModel model;
+    private final IView view;
+    private final long renderEvery;
+    private final long[] moves = new long[BATCH];
+
+    /**
+     * @param model       the board to play on
+     * @param view        shown the board every renderEvery moves and at the end;
+     *                    may be null for no output
+     * @param renderEvery moves between displays, or 0 to display only at the end
+     */
+    public ScriptRunner(BoardModel model, IView view, long renderEvery) {
+        if (renderEvery < 0) {
+            throw new IllegalArgumentException("Render interval must be non-negative: " + renderEvery);
+        }
+        this.model = model;
+        this.view = view;
+        this.renderEvery = renderEvery;
+    }
+
+    /**
+     * Apply every move in the script, or as many as come before the game ends.
+     *
+     * @param script the moves to replay
+     * @return the number of moves applied
+     * @throws IOException if the script cannot be read
+     */
+    public long run(MoveScript script) throws IOException {
+        long applied = 0, lastRender = -1;
+        long nextRender = renderEvery > 0 ? renderEvery : Long.MAX_VALUE;
+        while (!model.isGameOver() && !model.isGameWon()) {
+            // never read past the next display point
+            int want = (int) Math.min(BATCH, nextRender - applied);
+            int n = script.read(moves, 0, want);
+            if (n == 0) break;
+            int done = model.applyMoves(moves, 0, n);
+            applied += done;
+            if (applied == nextRender) {
+                if (view != null) view.display(model);
+                lastRender = applied;
+                nextRender += renderEvery;
+            }
+            if (done < n) break;  // game ended mid-batch
+        }
+        if (view != null && lastRender != applied) view.display(model);
+        return applied;
+    }
+
+    /**
+     * Replay a script from the command line and print the final board.
+     * Usage: {@code ScriptRunner <board> <script> [renderEvery]}, where board is
+     * a saved game (CSV or .msb) or {@code LEVEL:seed}, e.g. {@code EXPERT:42}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ScriptRunner <save file | LEVEL:seed> <script> [renderEvery]");
+            System.exit(2);
+        }
+        BoardModel model;
+        int colon = args[0].indexOf(':');
+        if (colon > 0 && !args[0].contains("/") && !args[0].contains("\\")) {
+            Level level = Level.valueOf(args[0].substring(0, colon));
+            long seed = Long.parseLong(args[0].substring(colon + 1));
+            model = new BoardModel(level.rows(), level.cols(), level.mines(), level.treasures(), seed);
+        } else {
+            model = MSBUtils.loadGame(args[0]);
+        }
+        long every = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        long start = System.nanoTime();
+        long applied;
+        try (MoveScript script = MoveScript.open(args[1])) {
+            applied = new ScriptRunner(model, new TextView(), every).run(script);
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d moves in %.3f s (%s)%n", applied, secs,
+            model.isGameWon() ? "won" : model.isGameOver() ? "lost" : "in progress");
+    }
+}
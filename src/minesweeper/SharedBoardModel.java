@@ -0,0 +1,376 @@
+package minesweeper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SharedBoardModel is a board that many players reveal and flag at the same
+ * time, from any number of threads.  It follows the rules of {@link BoardModel}
+ * but has no listeners, undo or change sets; a move reports only how many
+ * cells it uncovered.
+ *
+ * Each cell is one byte: the {@link ChangeSet} state bits in the low nibble
+ * and the adjacent-mine count in the high one.  Revealing and flagging are a
+ * single compare-and-set on that byte, so no locks are taken: a cell is
+ * uncovered by exactly one move, and a flag cannot land on a cell that is
+ * being revealed.  Flood fills claim their cells the same way, so fills in
+ * different parts of the board never wait for each other, and two fills that
+ * meet simply split the cells between them.  Each move adds its totals to the
+ * shared counters once, when it is done.
+ *
+ * The counters are exact whenever no move is in progress; while moves run,
+ * {@link #getStats()} may combine counters from slightly different moments.
+ * A move that started before the game was lost is still completed.
+ */
+public class SharedBoardModel {
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final int STATE = 0x0F;   // ChangeSet bits; adjacency above them
+
+    private final int rows, cols, totalMines, totalTreasures;
+    private final byte[] cells;
+
+    private final AtomicInteger flagsLeft      = new AtomicInteger();
+    private final AtomicInteger treasureCount  = new AtomicInteger();
+    private final AtomicInteger cellsRevealed  = new AtomicInteger();
+    private final AtomicInteger unrevealedSafe = new AtomicInteger();
+    private final AtomicInteger correctFlags   = new AtomicInteger();
+    private final AtomicInteger incorrectFlags = new AtomicInteger();
+    private final AtomicInteger revealedTreasures = new AtomicInteger();
+    private final AtomicInteger minesHit       = new AtomicInteger();  // mine reveals no treasure covered
+    private volatile boolean gameOver;
+
+    /**
+     * Constructs a board whose layout is fully determined by the given seed,
+     * exactly as {@link BoardModel#BoardModel(int, int, int, int, long)} would.
+     * @throws IllegalArgumentException if the mines and treasures cannot fit on the board
+     */
+    public SharedBoardModel(int rows, int cols, int mines, int treasures, long seed) {
+        this(new BoardModel(rows, cols, mines, treasures, seed));
+    }
+
+    /**
+     * Constructs a shared copy of a game, including what has been revealed
+     * and flagged so far.  The source is not changed or referenced afterwards.
+     */
+    public SharedBoardModel(BoardModel source) {
+        this.rows           = source.getRows();
+        this.cols           = source.getCols();
+        this.totalMines     = source.getTotalMines();
+        this.totalTreasures = source.getTotalTreasures();
+        BitBoard b = source.bits();
+        cells = new byte[b.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) (b.state(i) | b.getAdjMines(i) << 4);
+        }
+        GameStats s = source.getStats();
+        flagsLeft.set(s.getFlagsLeft());
+        treasureCount.set(s.getTreasureCount());
+        cellsRevealed.set(s.getCellsRevealed());
+        unrevealedSafe.set(s.getUnrevealedSafe());
+        correctFlags.set(s.getCorrectFlags());
+        incorrectFlags.set(s.getIncorrectFlags());
+        revealedTreasures.set(s.getRevealedTreasures());
+        gameOver = s.isGameOver();
+        if (gameOver) minesHit.set(1);
+    }
+
+    // --- Moves ---
+
+    /**
+     * Reveal cell (r,c), with the same treasure, mine and flood-fill rules as
+     * {@link BoardModel#revealCell}.  Safe to call from any thread.
+     *
+     * @return how many cells this call uncovered (0 if the move was ignored,
+     *         or another player got there first)
+     */
+    public int revealCell(int r, int c) {
+        if (outOfBounds(r, c) || gameOver) return 0;
+        int i = r * cols + c;
+        int s;
+        do {
+            s = (byte) CELL.getVolatile(cells, i);
+            if ((s & (ChangeSet.REVEALED | ChangeSet.FLAGGED)) != 0) return 0;
+        } while (!CELL.compareAndSet(cells, i, (byte) s, (byte) (s | ChangeSet.REVEALED)));
+
+        if ((s & ChangeSet.TREASURE) != 0) {
+            treasureCount.incrementAndGet();
+            revealedTreasures.incrementAndGet();
+        } else if ((s & ChangeSet.MINE) != 0) {
+            cellsRevealed.incrementAndGet();
+            if (!spendTreasure()) {
+                minesHit.incrementAndGet();
+                gameOver = true;
+            }
+            return 1;
+        } else if (s >>> 4 == 0) {
+            return floodReveal(i);
+        }
+        cellsRevealed.incrementAndGet();
+        unrevealedSafe.decrementAndGet();
+        return 1;
+    }
+
+    /** Take one treasure to defuse a mine; false if none is held. */
+    private boolean spendTreasure() {
+        int t;
+        do {
+            t = treasureCount.get();
+            if (t == 0) return false;
+        } while (!treasureCount.compareAndSet(t, t - 1));
+        return true;
+    }
+
+    /**
+     * Flood-fill outward from the empty cell just claimed at index start.
+     * A neighbour is queued only by the fill whose compare-and-set revealed
+     * it, so every cell is expanded once even when fills overlap.
+     *
+     * @return number of cells uncovered, including the start cell
+     */
+    private int floodReveal(int start) {
+        int[] queue = new int[64];
+        int head = 0, tail = 0, uncovered = 1, found = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int i = queue[head++];
+            int r = i / cols, c = i - r * cols;
+            int r0 = r > 0 ? r - 1 : r, r1 = r < rows - 1 ? r + 1 : r;
+            int c0 = c > 0 ? c - 1 : c, c1 = c < cols - 1 ? c + 1 : c;
+
+            for (int rr = r0; rr <= r1; rr++) {
+                int j = rr * cols + c0;
+                for (int cc = c0; cc <= c1; cc++, j++) {
+                    // neighbours of a 0-adj cell are never mines
+                    int s = (byte) CELL.getVolatile(cells, j);
+                    while ((s & (ChangeSet.REVEALED | ChangeSet.FLAGGED)) == 0
+                           && !CELL.compareAndSet(cells, j, (byte) s, (byte) (s | ChangeSet.REVEALED))) {
+                        s = (byte) CELL.getVolatile(cells, j);
+                    }
+                    if ((s & (ChangeSet.REVEALED | ChangeSet.FLAGGED)) != 0) continue;
+
+                    uncovered++;
+                    if ((s & ChangeSet.TREASURE) != 0) {
+                        found++;
+                    } else if (s >>> 4 == 0) {
+                        if (tail == queue.length) queue = Arrays.copyOf(queue, tail * 2);
+                        queue[tail++] = j;
+                    }
+                }
+            }
+        }
+        cellsRevealed.addAndGet(uncovered);
+        unrevealedSafe.addAndGet(-uncovered);
+        if (found > 0) {
+            treasureCount.addAndGet(found);
+            revealedTreasures.addAndGet(found);
+        }
+        return uncovered;
+    }
+
+    /**
+     * Toggle a flag at (r,c) if it is still covered.  Safe to call from any thread.
+     * @return true if the flag was toggled
+     */
+    public boolean markCell(int r, int c) {
+        if (outOfBounds(r, c) || gameOver) return false;
+        int i = r * cols + c;
+        int s;
+        do {
+            s = (byte) CELL.getVolatile(cells, i);
+            if ((s & ChangeSet.REVEALED) != 0) return false;
+        } while (!CELL.compareAndSet(cells, i, (byte) s, (byte) (s ^ ChangeSet.FLAGGED)));
+
+        boolean now = (s & ChangeSet.FLAGGED) == 0;
+        flagsLeft.addAndGet(now ? -1 : 1);
+        if ((s & ChangeSet.MINE) != 0) correctFlags.addAndGet(now ? 1 : -1);
+        else                           incorrectFlags.addAndGet(now ? 1 : -1);
+        return true;
+    }
+
+    // --- State ---
+
+    /** Returns true once a mine was hit with no treasure to defuse it. */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /** Returns true when every non-mine cell has been revealed. */
+    public boolean isGameWon() {
+        return unrevealedSafe.get() == 0;
+    }
+
+    /** Snapshot of the running counters; see the class comment on consistency. */
+    public GameStats getStats() {
+        return new GameStats(cellsRevealed.get(), unrevealedSafe.get(),
+                             correctFlags.get(), incorrectFlags.get(),
+                             revealedTreasures.get(), flagsLeft.get(),
+                             treasureCount.get(), gameOver);
+    }
+
+    /**
+     * Copy the current state into a new BoardModel, e.g. to render or save
+     * it.  Cells changed while the copy is taken may or may not be included.
+     */
+    public BoardModel toBoardModel() {
+        BoardModel m = BoardModel.blank(rows, cols, totalMines, totalTreasures);
+        BitBoard b = m.bits();
+        for (int i = 0; i < cells.length; i++) {
+            int s = (byte) CELL.getOpaque(cells, i);
+            b.setMine(i, (s & ChangeSet.MINE) != 0);
+            b.setRevealed(i, (s & ChangeSet.REVEALED) != 0);
+            b.setFlagged(i, (s & ChangeSet.FLAGGED) != 0);
+            b.setTreasure(i, (s & ChangeSet.TREASURE) != 0);
+        }
+        m.refreshAfterBulkLoad();
+        m.setFlagsLeft(flagsLeft.get());
+        m.setTreasureCount(treasureCount.get());
+        m.setGameOver(gameOver);
+        return m;
+    }
+
+    /**
+     * Recount everything from the cells and compare with the running
+     * counters.  Only meaningful while no move is in progress.
+     * @throws IllegalStateException describing the first mismatch
+     */
+    public void verify() {
+        int revealed = 0, safeCovered = 0, good = 0, bad = 0, found = 0, minesShown = 0;
+        for (int i = 0; i < cells.length; i++) {
+            int s = cells[i] & STATE;
+            boolean mine = (s & ChangeSet.MINE) != 0;
+            boolean shown = (s & ChangeSet.REVEALED) != 0, flag = (s & ChangeSet.FLAGGED) != 0;
+            if (shown && flag) throw new IllegalStateException("Cell " + i + " is revealed and flagged");
+            if (shown) revealed++;
+            else if (!mine) safeCovered++;
+            if (flag && mine) good++;
+            if (flag && !mine) bad++;
+            if (shown && (s & ChangeSet.TREASURE) != 0) found++;
+            if (shown && mine) minesShown++;
+        }
+        check("cellsRevealed", cellsRevealed.get(), revealed);
+        check("unrevealedSafe", unrevealedSafe.get(), safeCovered);
+        check("correctFlags", correctFlags.get(), good);
+        check("incorrectFlags", incorrectFlags.get(), bad);
+        check("revealedTreasures", revealedTreasures.get(), found);
+        check("flagsLeft", flagsLeft.get(), totalMines - good - bad);
+        // every mine shown either used up a treasure or ended the game
+        check("treasureCount", treasureCount.get(), found - (minesShown - minesHit.get()));
+        check("gameOver", gameOver ? 1 : 0, minesHit.get() > 0 ? 1 : 0);
+    }
+
+    private static void check(String what, int counter, int actual) {
+        if (counter != actual) {
+            throw new IllegalStateException(what + " is " + counter + " but the cells say " + actual);
+        }
+    }
+
+    public boolean isMine(int r, int c)      { return (cell(r, c) & ChangeSet.MINE) != 0; }
+    public boolean isRevealed(int r, int c)  { return (cell(r, c) & ChangeSet.REVEALED) != 0; }
+    public boolean isFlagged(int r, int c)   { return (cell(r, c) & ChangeSet.FLAGGED) != 0; }
+    public boolean hasTreasure(int r, int c) { return (cell(r, c) & ChangeSet.TREASURE) != 0; }
+    public int getAdjMines(int r, int c)     { return (cell(r, c) & 0xFF) >>> 4; }
+    public int getRows()            { return rows; }
+    public int getCols()            { return cols; }
+    public int getTotalMines()      { return totalMines; }
+    public int getTotalTreasures()  { return totalTreasures; }
+    public int getFlagsLeft()       { return flagsLeft.get(); }
+    public int getTreasureCount()   { return treasureCount.get(); }
+
+    private int cell(int r, int c) {
+        if (outOfBounds(r, c)) throw new IndexOutOfBoundsException("(" + r + "," + c + ")");
+        return (byte) CELL.getOpaque(cells, r * cols + c);
+    }
+
+    private boolean outOfBounds(int r, int c) {
+        return r < 0 || r >= rows || c < 0 || c >= cols;
+    }
+
+    // --- Stress test ---
+
+    /**
+     * Stress test: players hammer one large board from separate threads for
+     * 1, 2, 4, ... up to the given number of threads, reporting moves per
+     * second, and then check that the counters agree with the cells and that
+     * every revealed empty cell had its whole neighbourhood opened.
+     *
+     * Players reveal safe cells, toggle flags on mines (so floods are never
+     * blocked), and now and then step on a mine while holding a treasure.
+     *
+     * Usage: {@code SharedBoardModel [rows [cols [threads [seconds]]]]}
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int rows       = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int cols       = args.length > 1 ? Integer.parseInt(args[1]) : 2048;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2])
+                                         : Math.max(4, Runtime.getRuntime().availableProcessors());
+        double seconds = args.length > 3 ? Double.parseDouble(args[3]) : 2;
+        int mines = (int) ((long) rows * cols * 18 / 100);
+        int treasures = (int) ((long) rows * cols / 500);
+
+        System.out.printf("%dx%d board, %d mines, %d treasures, %d CPUs%n",
+            rows, cols, mines, treasures, Runtime.getRuntime().availableProcessors());
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            SharedBoardModel board = new SharedBoardModel(rows, cols, mines, treasures, 42);
+            long[] moves = new long[threads];
+            long deadline = System.nanoTime() + (long) (seconds * 1e9);
+            List<Thread> players = new ArrayList<>();
+            for (int p = 0; p < threads; p++) {
+                int me = p;
+                players.add(new Thread(() -> moves[me] = play(board, me, deadline), "player-" + p));
+            }
+            long t0 = System.nanoTime();
+            for (Thread t : players) t.start();
+            for (Thread t : players) t.join();
+            double took = (System.nanoTime() - t0) / 1e9;
+
+            long total = 0;
+            for (long m : moves) total += m;
+            board.verify();
+            checkFloods(board);
+            GameStats s = board.getStats();
+            System.out.printf("%2d players: %,.0f moves/s, %d%% revealed, %d treasures held%s - consistent%n",
+                threads, total / took, (int) (100L * s.getCellsRevealed() / ((long) rows * cols)),
+                s.getTreasureCount(), board.isGameOver() ? ", lost" : board.isGameWon() ? ", won" : "");
+            if (threads == maxThreads) break;
+        }
+    }
+
+    /** One player's moves until the deadline or the end of the game. */
+    private static long play(SharedBoardModel b, long seed, long deadline) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        long n = 0;
+        while (!b.isGameOver() && !b.isGameWon()) {
+            if ((n & 255) == 0 && System.nanoTime() > deadline) break;
+            int r = rng.nextInt(b.rows), c = rng.nextInt(b.cols);
+            if (!b.isMine(r, c))                   b.revealCell(r, c);
+            else if (rng.nextInt(64) != 0)         b.markCell(r, c);
+            else if (b.getTreasureCount() > 4 && !b.isFlagged(r, c)) b.revealCell(r, c);
+            n++;
+        }
+        return n;
+    }
+
+    /** No covered cell may border a revealed empty one, since mines are the only flags. */
+    private static void checkFloods(SharedBoardModel b) {
+        for (int r = 0; r < b.rows; r++) {
+            for (int c = 0; c < b.cols; c++) {
+                if (!b.isRevealed(r, c) || b.isMine(r, c) || b.hasTreasure(r, c)
+                    || b.getAdjMines(r, c) != 0) continue;
+                for (int rr = Math.max(r - 1, 0); rr <= Math.min(r + 1, b.rows - 1); rr++) {
+                    for (int cc = Math.max(c - 1, 0); cc <= Math.min(c + 1, b.cols - 1); cc++) {
+                        if (!b.isRevealed(rr, cc)) {
+                            throw new IllegalStateException("Flood stopped short at (" + rr + "," + cc
+                                + ") next to empty (" + r + "," + c + ")");
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
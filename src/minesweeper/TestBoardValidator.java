@@ -1,114 +1,381 @@
 package minesweeper;
 
-import java.util.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 /**
- * Validates a custom test board configuration for Minesweeper.
- * Ensures the board is 8x8, contains exactly 10 mines (with specific placement rules),
- * and no more than 9 treasures. Throws IllegalArgumentException on invalid input.
+ * Validates custom test board configurations for Minesweeper.
+ * Cell values are 0=empty, 1=mine, 2=treasure, and mines are numbered in
+ * row-major order.  A rule set fixes:
+ * <ul>
+ *   <li>the board size, or any rectangular size</li>
+ *   <li>the number of mines and the most treasures allowed</li>
+ *   <li>the "lattice": the first k mines each in their own row and column,
+ *       none orthogonally adjacent, and one on the main diagonal</li>
+ *   <li>optionally, that mine k+1 touches the lattice orthogonally, and that
+ *       mine k+2 touches none of the mines before it</li>
+ * </ul>
+ * The classic rules ({@link #CLASSIC}) are an 8x8 board with exactly 10
+ * mines, an 8-mine lattice and both extra mines, and at most 9 treasures.
+ *
+ * A board is checked as bit planes, one row of {@code long} words per board
+ * row: the columns already used by the lattice are a bitmask, and the first n
+ * mines are found by popcount, so a check is linear in the board size with
+ * no per-mine objects.  {@link #validateDirectory} checks a whole tree of CSV files in
+ * parallel, streaming one JSON line per file.
  */
 public class TestBoardValidator {
+    /** Any size, mine count or treasure count. */
+    public static final int ANY = -1;
+    /** Lattice size meaning "the smaller board dimension". */
+    public static final int SHORT_SIDE = -1;
+
+    /** The rules of the testing mode: 8x8, 10 mines, at most 9 treasures. */
+    public static final TestBoardValidator CLASSIC = new TestBoardValidator(8, 8, 10, 9, 8, true, true);
+    /** The classic placement rules, scaled to a board of any size. */
+    public static final TestBoardValidator ANY_SIZE =
+        new TestBoardValidator(ANY, ANY, ANY, ANY, SHORT_SIDE, true, true);
+
+    private static final int FILES_PER_TASK = 256;   // batch of a directory run handed to one thread
+
+    private final int rows, cols, mines, maxTreasures, lattice;
+    private final boolean touching, isolated;
+
+    /**
+     * @param rows         required rows, or ANY
+     * @param cols         required columns, or ANY
+     * @param mines        required mines, or ANY
+     * @param maxTreasures most treasures allowed, or ANY
+     * @param lattice      mines in the lattice, 0 for no placement rules, or SHORT_SIDE
+     * @param touching     whether the mine after the lattice must touch it
+     * @param isolated     whether the mine after that must touch no earlier mine
+     */
+    public TestBoardValidator(int rows, int cols, int mines, int maxTreasures,
+                              int lattice, boolean touching, boolean isolated) {
+        if (rows < ANY || rows == 0 || cols < ANY || cols == 0 || mines < ANY
+            || maxTreasures < ANY || lattice < SHORT_SIDE) {
+            throw new IllegalArgumentException("Invalid rule set: " + rows + "x" + cols + ", mines "
+                + mines + ", treasures " + maxTreasures + ", lattice " + lattice);
+        }
+        if (lattice == 0 && (touching || isolated)) {
+            throw new IllegalArgumentException("Touching and isolated mines need a lattice");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.maxTreasures = maxTreasures;
+        this.lattice = lattice;
+        this.touching = touching;
+        this.isolated = isolated;
+    }
+
+    /**
+     * Parse a rule set: {@code classic}, {@code any}, or comma-separated
+     * settings as printed by {@link #toString}, e.g.
+     * {@code size=16x16,mines=18,treasures=20,lattice=16,touch,isolate}.
+     * Omitted settings mean ANY; without a lattice there are no placement rules.
+     * @throws IllegalArgumentException if the spec cannot be parsed
+     */
+    public static TestBoardValidator parse(String spec) {
+        if (spec.equalsIgnoreCase("classic")) return CLASSIC;
+        if (spec.equalsIgnoreCase("any"))     return ANY_SIZE;
+        int r = ANY, c = ANY, m = ANY, t = ANY, k = 0;
+        boolean touch = false, isolate = false;
+        try {
+            for (String part : spec.split(",")) {
+                String[] kv = part.trim().split("=", 2);
+                String key = kv[0].toLowerCase(), value = kv.length > 1 ? kv[1].toLowerCase() : null;
+                switch (key) {
+                    case "size":
+                        if (!value.equals("any")) {
+                            int x = value.indexOf('x');
+                            r = Integer.parseInt(value.substring(0, x));
+                            c = Integer.parseInt(value.substring(x + 1));
+                        }
+                        break;
+                    case "mines":     m = value.equals("any") ? ANY : Integer.parseInt(value); break;
+                    case "treasures": t = value.equals("any") ? ANY : Integer.parseInt(value); break;
+                    case "lattice":   k = value.equals("short") ? SHORT_SIDE : Integer.parseInt(value); break;
+                    case "touch":     touch = true; break;
+                    case "isolate":   isolate = true; break;
+                    default: throw new IllegalArgumentException("unknown setting '" + kv[0] + "'");
+                }
+            }
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Bad rule set '" + spec + "': " + ex.getMessage(), ex);
+        }
+        return new TestBoardValidator(r, c, m, t, k, touch, isolate);
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + (rows == ANY ? "any" : rows + "x" + cols)
+            + ",mines=" + (mines == ANY ? "any" : mines)
+            + ",treasures=" + (maxTreasures == ANY ? "any" : maxTreasures)
+            + (lattice != 0 ? ",lattice=" + (lattice == SHORT_SIDE ? "short" : lattice) : "")
+            + (touching ? ",touch" : "") + (isolated ? ",isolate" : "");
+    }
+
+    // --- Single boards ---
 
     /**
-     * Validates the given 2D cell array as a proper test board.
-     * <ul>
-     *   <li>Must be exactly 8 rows and 8 columns</li>
-     *   <li>Cell values: 0=empty, 1=mine, 2=treasure</li>
-     *   <li>Exactly 10 mines and at most 9 treasures</li>
-     *   <li>Placement rules for the first 8, 9th, and 10th mines</li>
-     * </ul>
+     * Validates the given 2D cell array as a proper test board under the
+     * {@link #CLASSIC} rules, as the testing mode requires.
      * @param cells 8x8 array of integers representing board contents
      * @throws IllegalArgumentException if any rule is violated
      */
     public static void validate(int[][] cells) {
-        // Check board dimensions
-        if (cells.length != 8)
-            throw new IllegalArgumentException("Board must be 8 rows");
-        for (int r = 0; r < 8; r++) {
-            if (cells[r].length != 8)
-                throw new IllegalArgumentException("Row " + r + " must have 8 columns");
-        }
-
-        // Collect coordinates of mines (1) and treasures (2)
-        List<Coord> mineCoords = new ArrayList<>();
-        List<Coord> treasureCoords = new ArrayList<>();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                int v = cells[r][c];
-                if (v == 1) {
-                    mineCoords.add(new Coord(r, c));
-                } else if (v == 2) {
-                    treasureCoords.add(new Coord(r, c));
-                } else if (v != 0) {
-                    // Invalid cell value
-                    throw new IllegalArgumentException(
-                        "Invalid cell value at " + r + "," + c + ": " + v);
+        CLASSIC.check(cells);
+    }
+
+    /**
+     * Check a board against this rule set.
+     * @param cells rows of cell values
+     * @throws IllegalArgumentException describing the first rule violated
+     */
+    public void check(int[][] cells) {
+        if (cells.length == 0 || cells[0].length == 0) throw new IllegalArgumentException("Board is empty");
+        int width = cols == ANY ? cells[0].length : cols;
+        checkSize(cells.length, width);
+        Planes p = new Planes(cells.length, width);
+        for (int r = 0; r < p.rows; r++) {
+            if (cells[r].length != width) {
+                throw new IllegalArgumentException("Row " + r + " must have " + width + " columns");
+            }
+            for (int c = 0; c < width; c++) p.set(r, c, cells[r][c]);
+        }
+        check(p);
+    }
+
+    /**
+     * Check a board in test CSV form: one line per row of comma-separated
+     * cell values.  Blank lines are skipped.
+     * @throws IllegalArgumentException if it is malformed or violates a rule
+     */
+    public void checkCsv(byte[] csv) {
+        // first pass: the shape
+        int lines = 0, width = -1, fields = 1;
+        boolean blank = true;
+        for (int k = 0; k <= csv.length; k++) {
+            byte b = k < csv.length ? csv[k] : (byte) '\n';
+            if (b == '\n') {
+                if (!blank) {
+                    if (width < 0) width = fields;
+                    else if (fields != width) {
+                        throw new IllegalArgumentException("Row " + lines + " must have " + width + " columns");
+                    }
+                    lines++;
                 }
+                fields = 1;
+                blank = true;
+            } else if (b == ',') {
+                fields++;
+                blank = false;
+            } else if (b != '\r' && b != ' ' && b != '\t') {
+                blank = false;
             }
         }
+        if (lines == 0) throw new IllegalArgumentException("Board is empty");
+        checkSize(lines, width);
 
-        // Check counts of mines and treasures
-        if (mineCoords.size() != 10)
-            throw new IllegalArgumentException(
-                "Must have exactly 10 mines, found " + mineCoords.size());
-        if (treasureCoords.size() > 9)
+        // second pass: the values
+        Planes p = new Planes(lines, width);
+        int r = 0, c = 0, value = -1;
+        blank = true;
+        for (int k = 0; k <= csv.length; k++) {
+            byte b = k < csv.length ? csv[k] : (byte) '\n';
+            if (b >= '0' && b <= '9') {
+                value = Math.min((value < 0 ? 0 : value) * 10 + (b - '0'), 1_000_000);  // no overflow
+                blank = false;
+            } else if (b == ',' || b == '\n') {
+                if (b == '\n' && blank) continue;
+                if (value < 0) {
+                    throw new IllegalArgumentException("Invalid cell value at " + r + "," + c + ": empty");
+                }
+                p.set(r, c, value);
+                value = -1;
+                if (b == ',') {
+                    c++;
+                    blank = false;
+                } else {
+                    r++;
+                    c = 0;
+                    blank = true;
+                }
+            } else if (b != '\r' && b != ' ' && b != '\t') {
+                throw new IllegalArgumentException("Invalid cell value at " + r + "," + c
+                    + ": '" + (char) (b & 0xFF) + "'");
+            }
+        }
+        check(p);
+    }
+
+    private void checkSize(int r, int c) {
+        if (rows != ANY && r != rows) throw new IllegalArgumentException("Board must be " + rows + " rows");
+        if (cols != ANY && c != cols) throw new IllegalArgumentException("Row 0 must have " + cols + " columns");
+    }
+
+    /** Counts, then placement rules. */
+    private void check(Planes p) {
+        int mineCount = p.count(p.mines), treasureCount = p.count(p.treasures);
+        if (mines != ANY && mineCount != mines) {
+            throw new IllegalArgumentException("Must have exactly " + mines + " mines, found " + mineCount);
+        }
+        if (maxTreasures != ANY && treasureCount > maxTreasures) {
             throw new IllegalArgumentException(
-                "At most 9 treasures allowed, found " + treasureCoords.size());
+                "At most " + maxTreasures + " treasures allowed, found " + treasureCount);
+        }
+        if (lattice == 0) return;
+
+        int k = lattice == SHORT_SIDE ? Math.min(p.rows, p.cols) : lattice;
+        int needed = k + (touching ? 1 : 0) + (isolated ? 1 : 0);
+        if (mineCount < needed) {
+            throw new IllegalArgumentException("Must have at least " + needed + " mines, found " + mineCount);
+        }
 
-        // Enforce rules on mine placement:
-        // 1) First 8 mines: unique row & column, no orthogonal adjacency, one on main diagonal
-        List<Coord> first8 = mineCoords.subList(0, 8);
-        Set<Integer> rows = new HashSet<>();
-        Set<Integer> cols = new HashSet<>();
+        // 1) First k mines: unique row & column, one on the main diagonal
+        long[] first = p.firstMines(k);
+        long[] usedCols = new long[p.stride];
         boolean diagonalFound = false;
-        for (Coord m : first8) {
-            if (!rows.add(m.r))
+        for (int r = 0; r < p.rows; r++) {
+            int base = r * p.stride, inRow = 0;
+            for (int w = 0; w < p.stride; w++) {
+                long bits = first[base + w];
+                while (bits != 0) {
+                    long bit = bits & -bits;
+                    if (++inRow > 1) {
+                        throw new IllegalArgumentException("Duplicate row in first " + k + " mines: "
+                            + new Coord(r, w * 64 + Long.numberOfTrailingZeros(bit)));
+                    }
+                    if ((usedCols[w] & bit) != 0) {
+                        throw new IllegalArgumentException("Duplicate column in first " + k + " mines: "
+                            + new Coord(r, w * 64 + Long.numberOfTrailingZeros(bit)));
+                    }
+                    usedCols[w] |= bit;
+                    bits ^= bit;
+                }
+            }
+            if (r < p.cols && p.get(first, r, r)) diagonalFound = true;   // on main diagonal
+        }
+        if (!diagonalFound) {
+            throw new IllegalArgumentException(
+                "One of the first " + k + " mines must lie on the main diagonal (r==c)");
+        }
+        // orthogonal neighbours share a row or a column, so the lattice has none
+
+        // 2) Mine k+1: must be orthogonally adjacent to at least one of the first k
+        int next = k;
+        if (touching) {
+            Coord m = p.mine(next++);
+            if (!p.touches(first, m)) {
                 throw new IllegalArgumentException(
-                    "Duplicate row in first 8 mines: " + m);
-            if (!cols.add(m.c))
+                    ordinal(next) + " mine " + m + " must be adjacent to one of the first " + k);
+            }
+        }
+        // 3) The mine after it: no orthogonal adjacency to any earlier mine
+        if (isolated) {
+            Coord m = p.mine(next);
+            if (p.touches(p.firstMines(next), m)) {
                 throw new IllegalArgumentException(
-                    "Duplicate column in first 8 mines: " + m);
-            if (m.r == m.c) diagonalFound = true;  // on main diagonal
+                    ordinal(next + 1) + " mine " + m + " must be isolated from all others");
+            }
         }
-        if (!diagonalFound)
-            throw new IllegalArgumentException(
-                "One of the first 8 mines must lie on the main diagonal (r==c)");
-
-        // Check no two of the first 8 are orthogonally adjacent
-        for (int i = 0; i < 8; i++) {
-            for (int j = i + 1; j < 8; j++) {
-                Coord a = first8.get(i);
-                Coord b = first8.get(j);
-                boolean sameRowAdj = a.r == b.r && Math.abs(a.c - b.c) == 1;
-                boolean sameColAdj = a.c == b.c && Math.abs(a.r - b.r) == 1;
-                if (sameRowAdj || sameColAdj) {
-                    throw new IllegalArgumentException(
-                        "First 8 mines must not be orthogonally adjacent: " + a + " & " + b);
+    }
+
+    /** 1st, 2nd, 3rd, 4th, ..., 11th, 12th, 13th, ..., 21st, ... */
+    private static String ordinal(int n) {
+        int tens = n % 100, ones = n % 10;
+        if (tens >= 11 && tens <= 13) return n + "th";
+        return n + (ones == 1 ? "st" : ones == 2 ? "nd" : ones == 3 ? "rd" : "th");
+    }
+
+    /**
+     * Mine and treasure bit planes, stride words per row, so that word order
+     * is row-major cell order.  Bits past the last column stay clear.
+     */
+    private static final class Planes {
+        final int rows, cols, stride;
+        final long[] mines, treasures;
+
+        Planes(int rows, int cols) {
+            this.rows = rows;
+            this.cols = cols;
+            this.stride = (cols + 63) >>> 6;
+            mines = new long[rows * stride];
+            treasures = new long[rows * stride];
+        }
+
+        void set(int r, int c, int v) {
+            int w = r * stride + (c >>> 6);
+            if (v == 1)      mines[w] |= 1L << c;
+            else if (v == 2) treasures[w] |= 1L << c;
+            else if (v != 0) {
+                throw new IllegalArgumentException("Invalid cell value at " + r + "," + c + ": " + v);
+            }
+        }
+
+        boolean get(long[] plane, int r, int c) {
+            return r >= 0 && r < rows && c >= 0 && c < cols
+                && (plane[r * stride + (c >>> 6)] & 1L << c) != 0;
+        }
+
+        int count(long[] plane) {
+            int n = 0;
+            for (long w : plane) n += Long.bitCount(w);
+            return n;
+        }
+
+        /** The mine plane with only its first n mines. */
+        long[] firstMines(int n) {
+            long[] out = new long[mines.length];
+            for (int w = 0; w < mines.length && n > 0; w++) {
+                long bits = mines[w];
+                if (Long.bitCount(bits) <= n) {
+                    out[w] = bits;
+                    n -= Long.bitCount(bits);
+                } else {
+                    for (; n > 0; n--) {
+                        out[w] |= bits & -bits;
+                        bits &= bits - 1;
+                    }
                 }
             }
+            return out;
         }
 
-        // 2) 9th mine: must be adjacent to at least one of the first 8 (orthogonally)
-        Coord ninth = mineCoords.get(8);
-        boolean adjToOne = first8.stream().anyMatch(m ->
-            (m.r == ninth.r && Math.abs(m.c - ninth.c) == 1) ||
-            (m.c == ninth.c && Math.abs(m.r - ninth.r) == 1)
-        );
-        if (!adjToOne)
-            throw new IllegalArgumentException(
-                "9th mine " + ninth + " must be adjacent to one of the first 8");
-
-        // 3) 10th mine: must be isolated from all previous nine (no orthogonal adjacency)
-        Coord tenth = mineCoords.get(9);
-        for (int i = 0; i < 9; i++) {
-            Coord m = mineCoords.get(i);
-            boolean rowAdj = m.r == tenth.r && Math.abs(m.c - tenth.c) == 1;
-            boolean colAdj = m.c == tenth.c && Math.abs(m.r - tenth.r) == 1;
-            if (rowAdj || colAdj) {
-                throw new IllegalArgumentException(
-                    "10th mine " + tenth + " must be isolated from all others");
+        /** Mine number n, counting from 0; it is known to exist. */
+        Coord mine(int n) {
+            for (int w = 0; ; w++) {
+                long bits = mines[w];
+                int b = Long.bitCount(bits);
+                if (n < b) {
+                    for (; n > 0; n--) bits &= bits - 1;
+                    return new Coord(w / stride, (w % stride) * 64 + Long.numberOfTrailingZeros(bits));
+                }
+                n -= b;
             }
         }
+
+        /** Whether any of m's orthogonal neighbours is set. */
+        boolean touches(long[] plane, Coord m) {
+            return get(plane, m.r, m.c - 1) || get(plane, m.r, m.c + 1)
+                || get(plane, m.r - 1, m.c) || get(plane, m.r + 1, m.c);
+        }
     }
 
     /**
@@ -120,4 +387,174 @@ public class TestBoardValidator {
         @Override
         public String toString() { return "(" + r + "," + c + ")"; }
     }
+
+    // --- Batch mode ---
+
+    /** Totals of a directory run. */
+    public static final class Summary {
+        public final long files, valid, unreadable;
+        public final double seconds;
+
+        Summary(long files, long valid, long unreadable, double seconds) {
+            this.files = files;
+            this.valid = valid;
+            this.unreadable = unreadable;
+            this.seconds = seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{\"files\":%d,\"valid\":%d,\"invalid\":%d,\"unreadable\":%d,\"seconds\":%.3f}",
+                files, valid, files - valid - unreadable, unreadable, seconds);
+        }
+    }
+
+    /**
+     * Check every .csv file under a directory, on several threads, writing
+     * one JSON line per file as soon as its batch is done:
+     * {@code {"file":"a/b.csv","valid":true}} or
+     * {@code {"file":"a/b.csv","valid":false,"error":"..."}}.
+     * Lines come in no particular order; file names are relative to dir.
+     *
+     * @param dir     root of the tree to check
+     * @param threads number of checking threads
+     * @param out     receives the report; written by one thread at a time
+     * @return the totals
+     * @throws IOException if the tree cannot be listed, or the report written
+     */
+    public Summary validateDirectory(Path dir, int threads, Writer out) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        AtomicLong files = new AtomicLong(), valid = new AtomicLong(), unreadable = new AtomicLong();
+        AtomicReference<IOException> writeFailure = new AtomicReference<>();
+        IOException walkFailure = null;
+        long start = System.nanoTime();
+        try (Stream<Path> tree = Files.walk(dir)) {
+            List<Path> batch = new ArrayList<>(FILES_PER_TASK);
+            for (Path f : (Iterable<Path>) tree::iterator) {
+                if (!f.getFileName().toString().toLowerCase().endsWith(".csv") || !Files.isRegularFile(f)) continue;
+                batch.add(f);
+                if (batch.size() == FILES_PER_TASK) {
+                    submit(pool, dir, batch, out, files, valid, unreadable, writeFailure);
+                    batch = new ArrayList<>(FILES_PER_TASK);
+                }
+            }
+            submit(pool, dir, batch, out, files, valid, unreadable, writeFailure);
+        } catch (IOException ex) {
+            walkFailure = ex;
+        } catch (UncheckedIOException ex) {
+            walkFailure = ex.getCause();
+        } finally {
+            if (walkFailure != null) pool.shutdownNow();   // abandon the queued batches
+            else                     pool.shutdown();
+        }
+        // batches already running write to out; let them finish before returning either way
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                // still checking
+            }
+        } catch (InterruptedException ex) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while validating", ex);
+        }
+        if (walkFailure != null) throw walkFailure;
+        if (writeFailure.get() != null) throw writeFailure.get();
+        synchronized (out) {
+            out.flush();
+        }
+        return new Summary(files.get(), valid.get(), unreadable.get(), (System.nanoTime() - start) / 1e9);
+    }
+
+    private void submit(ExecutorService pool, Path dir, List<Path> batch, Writer out,
+                        AtomicLong files, AtomicLong valid, AtomicLong unreadable,
+                        AtomicReference<IOException> writeFailure) {
+        if (batch.isEmpty()) return;
+        pool.execute(() -> {
+            StringBuilder report = new StringBuilder(batch.size() * 64);
+            for (Path f : batch) {
+                report.append("{\"file\":");
+                quote(report, dir.relativize(f).toString());
+                String error = null;
+                try {
+                    checkCsv(Files.readAllBytes(f));
+                    valid.incrementAndGet();
+                } catch (IOException ex) {
+                    unreadable.incrementAndGet();
+                    error = "cannot read: " + ex.getMessage();
+                } catch (IllegalArgumentException ex) {
+                    error = ex.getMessage();
+                }
+                if (error == null) {
+                    report.append(",\"valid\":true}\n");
+                } else {
+                    report.append(",\"valid\":false,\"error\":");
+                    quote(report, error);
+                    report.append("}\n");
+                }
+                files.incrementAndGet();
+            }
+            try {
+                synchronized (out) {
+                    out.write(report.toString());
+                    out.flush();
+                }
+            } catch (IOException ex) {
+                writeFailure.compareAndSet(null, ex);   // rethrown once every batch is done
+            }
+        });
+    }
+
+    /** Append s as a JSON string. */
+    private static void quote(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int k = 0; k < s.length(); k++) {
+            char ch = s.charAt(k);
+            if (ch == '"' || ch == '\\') sb.append('\\').append(ch);
+            else if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+            else sb.append(ch);
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Check a directory tree of test CSVs (or a single file), printing one JSON
+     * line per file and a summary line last.  Exits with status 1 if any board
+     * is invalid.
+     * Usage: {@code TestBoardValidator path [rules [threads]]}, rules as for {@link #parse}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TestBoardValidator path [rules [threads]]");
+            System.exit(2);
+        }
+        Path path = Paths.get(args[0]);
+        TestBoardValidator rules = args.length > 1 ? parse(args[1]) : CLASSIC;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        Summary s;
+        if (Files.isDirectory(path)) {
+            s = rules.validateDirectory(path, threads, out);
+        } else {
+            StringBuilder line = new StringBuilder("{\"file\":");
+            quote(line, path.toString());
+            try {
+                rules.checkCsv(Files.readAllBytes(path));
+                line.append(",\"valid\":true}");
+                s = new Summary(1, 1, 0, 0);
+            } catch (IllegalArgumentException ex) {
+                line.append(",\"valid\":false,\"error\":");
+                quote(line, ex.getMessage());
+                line.append('}');
+                s = new Summary(1, 0, 0, 0);
+            }
+            out.write(line + "\n");
+        }
+        out.write(s + "\n");
+        out.flush();
+        if (s.valid != s.files) System.exit(1);
+    }
 }
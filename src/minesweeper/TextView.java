@@ -5,11 +5,40 @@ import java.util.Scanner;
 /**
  * TextView provides a console-based interface for the Minesweeper game.
  * It displays the board in text form and reads user moves from standard input.
+ *
+ * On an ANSI terminal the board is drawn in place by an {@link AnsiRenderer}:
+ * after the first frame only the changed cells are redrawn.  Otherwise the
+ * board text is kept in a buffer: display() fills it from the model once,
+ * and after that each move's change events rewrite only the changed cells
+ * before the buffer is printed again.
  */
 public class TextView implements IView {
     // Scanner for reading user input from the console
     private final Scanner scanner = new Scanner(System.in);
 
+    private final AnsiRenderer ansi;  // null when printing plain text
+    private char[] screen;            // board text: two chars per cell, a newline per row
+    private int cols;
+
+    /** Text view that draws in place if standard output is an ANSI terminal. */
+    public TextView() {
+        this(isAnsiTerminal());
+    }
+
+    /**
+     * @param ansi true to draw in place with ANSI escape sequences, false to
+     *             print the whole board after every move
+     */
+    public TextView(boolean ansi) {
+        this.ansi = ansi ? new AnsiRenderer() : null;
+    }
+
+    /** Whether standard output looks like a terminal that understands ANSI sequences. */
+    public static boolean isAnsiTerminal() {
+        String term = System.getenv("TERM");
+        return System.console() != null && term != null && !term.equals("dumb");
+    }
+
     /**
      * Prints the current board state to the console.
      * Revealed cells show '*' for mines, 'T' for treasures, or the number of adjacent mines.
@@ -20,30 +49,44 @@ public class TextView implements IView {
      */
     @Override
     public void display(BoardModel model) {
-        Cell[][] grid = model.getGrid();
-        System.out.println("\nCurrent Board:");
+        if (ansi != null) {
+            ansi.drawFull(model);
+            return;
+        }
+        cols = model.getCols();
+        int rowLen = 2 * cols + 1;
+        if (screen == null || screen.length != rowLen * model.getRows()) {
+            screen = new char[rowLen * model.getRows()];
+        }
         // Loop over each row and column to render the grid
         for (int r = 0; r < model.getRows(); r++) {
-            for (int c = 0; c < model.getCols(); c++) {
-                Cell cell = grid[r][c];
-                if (cell.isRevealed()) {
-                    // Revealed cell: show mine, treasure, or adjacent count
-                    if (cell.isMine()) System.out.print("* ");
-                    else if (cell.hasTreasure()) System.out.print("T ");
-                    else System.out.print(cell.getAdjMines() + " ");
-                } else if (cell.isFlagged()) {
-                    // Flagged but not revealed
-                    System.out.print("F ");
-                } else {
-                    // Hidden and unflagged
-                    System.out.print(". ");
-                }
+            for (int c = 0; c < cols; c++) {
+                screen[r * rowLen + 2 * c]     = symbol(model, r, c);
+                screen[r * rowLen + 2 * c + 1] = ' ';
             }
-            System.out.println();  // Newline at end of row
+            screen[r * rowLen + rowLen - 1] = '\n';  // Newline at end of row
         }
-        // Summary line for flags and treasures
-        System.out.println("Flags left: " + model.getFlagsLeft() +
-                           " | Treasures: " + model.getTreasureCount());
+        print(model);
+    }
+
+    /** Rewrite just the changed cells, then print the board. */
+    @Override
+    public void cellsChanged(BoardModel model, ChangeSet changes) {
+        if (ansi != null) {
+            ansi.drawChanges(model, changes);
+            return;
+        }
+        if (screen == null || model.getCols() != cols
+                || screen.length != (2 * cols + 1) * model.getRows()) {
+            display(model);
+            return;
+        }
+        int rowLen = 2 * cols + 1;
+        for (int k = 0; k < changes.size(); k++) {
+            int r = changes.row(k), c = changes.col(k);
+            screen[r * rowLen + 2 * c] = symbol(model, r, c);
+        }
+        print(model);
     }
 
     /**
@@ -56,6 +99,7 @@ public class TextView implements IView {
     @Override
     public Move promptMove() {
         System.out.print("Enter move ([R]eveal or [M]ark) row col: ");
+        System.out.flush();
         // Read action type token and coordinates
         String type = scanner.next();
         int row = scanner.nextInt();
@@ -67,4 +111,26 @@ public class TextView implements IView {
         // Return new Move instance
         return new Move(moveType, row, col);
     }
+
+    /** Print the buffered board and the summary line in a single write. */
+    private void print(BoardModel model) {
+        StringBuilder out = new StringBuilder(screen.length + 64);
+        out.append("\nCurrent Board:\n").append(screen)
+           // Summary line for flags and treasures
+           .append("Flags left: ").append(model.getFlagsLeft())
+           .append(" | Treasures: ").append(model.getTreasureCount()).append('\n');
+        System.out.print(out);
+    }
+
+    /** Character for cell (r,c) as the player sees it; also used by the network protocol. */
+    public static char symbol(BoardModel model, int r, int c) {
+        if (model.isRevealed(r, c)) {
+            // Revealed cell: show mine, treasure, or adjacent count
+            if (model.isMine(r, c))      return '*';
+            if (model.hasTreasure(r, c)) return 'T';
+            return (char) ('0' + model.getAdjMines(r, c));
+        }
+        // Flagged, or hidden and unflagged
+        return model.isFlagged(r, c) ? 'F' : '.';
+    }
 }
@@ -0,0 +1,150 @@
+package minesweeper.endless;
+
+import minesweeper.AdjacencyCalculator;
+import minesweeper.BitBoard;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Chunk is one SIZE x SIZE square of an {@link EndlessBoard}, stored as a
+ * {@link BitBoard}.
+ *
+ * Its mines and treasures depend only on the board seed and the chunk's
+ * coordinates, so any chunk can be regenerated at any time; only what the
+ * player did to it (revealed and flagged cells) has to be kept.  Adjacent-mine
+ * counts include the mines of the eight surrounding chunks, whose layouts are
+ * generated just for that and then dropped.
+ *
+ * Chunk coordinates are a cell's row and column shifted right by SHIFT, so
+ * they take up the low 64 - SHIFT bits; the plane wraps around where the
+ * long cell coordinates do, and {@link #wrap} gives the matching neighbour.
+ */
+final class Chunk {
+    static final int SHIFT = 6;
+    /** Cells per chunk side. */
+    static final int SIZE = 1 << SHIFT;
+    static final int MASK = SIZE - 1;
+    static final int CELLS = SIZE * SIZE;
+
+    final long cr, cc;           // chunk coordinates
+    final BitBoard cells;
+    boolean dirty;               // changed since generated or loaded, so must be written on eviction
+
+    private Chunk(long cr, long cc, BitBoard cells) {
+        this.cr = cr;
+        this.cc = cc;
+        this.cells = cells;
+    }
+
+    /** Chunk coordinate x brought back into range, so the chunk past the last one is the first. */
+    static long wrap(long x) {
+        return x << SHIFT >> SHIFT;
+    }
+
+    /** A freshly generated chunk: nothing revealed, adjacency counted across its borders. */
+    static Chunk generate(long seed, int mines, int treasures, long cr, long cc) {
+        BitBoard cells = layout(seed, mines, treasures, cr, cc);
+
+        // count on a board one cell wider on every side, filled in from the neighbours
+        BitBoard padded = new BitBoard(SIZE + 2, SIZE + 2);
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                BitBoard src = dr == 0 && dc == 0 ? cells
+                             : layout(seed, mines, treasures, wrap(cr + dr), wrap(cc + dc));
+                // rows and columns of src that land inside the padded board
+                int r0 = dr < 0 ? MASK : 0, r1 = dr > 0 ? 1 : SIZE;
+                int c0 = dc < 0 ? MASK : 0, c1 = dc > 0 ? 1 : SIZE;
+                for (int r = r0; r < r1; r++) {
+                    for (int c = c0; c < c1; c++) {
+                        if (src.isMine(r * SIZE + c)) {
+                            padded.setMine(padded.index(r + dr * SIZE + 1, c + dc * SIZE + 1), true);
+                        }
+                    }
+                }
+            }
+        }
+        AdjacencyCalculator.compute(padded);
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                cells.setAdjMines(r * SIZE + c, padded.getAdjMines(padded.index(r + 1, c + 1)));
+            }
+        }
+        return new Chunk(cr, cc, cells);
+    }
+
+    /**
+     * Mines and treasures of chunk (cr, cc), placed the same way as on a
+     * BoardModel: Floyd's sampling for the occupied cells, then a partial
+     * shuffle to pick the treasures among them.
+     */
+    private static BitBoard layout(long seed, int mines, int treasures, long cr, long cc) {
+        BitBoard b = new BitBoard(SIZE, SIZE);
+        SplittableRandom rng = new SplittableRandom(chunkSeed(seed, cr, cc));
+        int k = mines + treasures;
+        int[] chosen = new int[k];
+        for (int j = CELLS - k, x = 0; j < CELLS; j++, x++) {
+            int t = rng.nextInt(j + 1);
+            int pick = b.isMine(t) ? j : t;
+            b.setMine(pick, true);
+            chosen[x] = pick;
+        }
+        for (int x = 0; x < treasures; x++) {
+            int y = x + rng.nextInt(k - x);
+            int pick = chosen[y];
+            chosen[y] = chosen[x];
+            chosen[x] = pick;
+            b.setMine(pick, false);
+            b.setTreasure(pick, true);
+        }
+        return b;
+    }
+
+    /** SplitMix64 hash of the board seed and chunk coordinates, one coordinate per round. */
+    static long chunkSeed(long seed, long cr, long cc) {
+        return mix(mix(seed + 0x9E3779B97F4A7C15L * (cr + 1)) + 0x9E3779B97F4A7C15L * (cc + 1));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // --- Spill format: the revealed plane, then the flagged plane, as longs (after ChunkCache's header) ---
+
+    void write(DataOutputStream out) throws IOException {
+        writePlane(out, true);
+        writePlane(out, false);
+    }
+
+    private void writePlane(DataOutputStream out, boolean revealed) throws IOException {
+        for (int w = 0; w < CELLS; w += 64) {
+            long bits = 0;
+            for (int b = 0; b < 64; b++) {
+                boolean set = revealed ? cells.isRevealed(w + b) : cells.isFlagged(w + b);
+                if (set) bits |= 1L << b;
+            }
+            out.writeLong(bits);
+        }
+    }
+
+    /** Regenerate chunk (cr, cc) and restore the player's state from a spill file. */
+    static Chunk read(DataInputStream in, long seed, int mines, int treasures,
+                      long cr, long cc) throws IOException {
+        Chunk chunk = generate(seed, mines, treasures, cr, cc);
+        for (int plane = 0; plane < 2; plane++) {
+            for (int w = 0; w < CELLS; w += 64) {
+                long bits = in.readLong();
+                for (; bits != 0; bits &= bits - 1) {
+                    int i = w + Long.numberOfTrailingZeros(bits);
+                    if (plane == 0) chunk.cells.setRevealed(i, true);
+                    else            chunk.cells.setFlagged(i, true);
+                }
+            }
+        }
+        return chunk;   // clean: the spill file still matches it
+    }
+}
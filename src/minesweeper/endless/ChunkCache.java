@@ -0,0 +1,141 @@
+package minesweeper.endless;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ChunkCache holds the chunks of an {@link EndlessBoard} that are in use,
+ * up to a fixed number, in least-recently-used order.
+ *
+ * A chunk is created the first time it is touched.  When the cache is full,
+ * the coldest chunk is evicted: if the player changed it, its revealed and
+ * flagged cells are written to a spill file first; otherwise it is simply
+ * dropped, since it can be regenerated from the seed.  Fetching an evicted
+ * chunk again reloads it from its spill file, or regenerates it.
+ *
+ * Each spill file starts with the board seed and the mines and treasures per
+ * chunk; a file left in the spill directory by a different board does not
+ * match them and is ignored.
+ *
+ * A Chunk returned by get() is only valid until the next get(), which may
+ * evict it.
+ */
+final class ChunkCache {
+    private final long seed;
+    private final int mines, treasures;   // per chunk
+    private final Path spillDir;
+    private final LinkedHashMap<Key, Chunk> chunks;
+    private Chunk last;                   // most recently fetched, for the common same-chunk case
+
+    long hits, generated, reloaded, spilled;
+
+    ChunkCache(long seed, int mines, int treasures, int capacity, Path spillDir) {
+        this.seed = seed;
+        this.mines = mines;
+        this.treasures = treasures;
+        this.spillDir = spillDir;
+        this.chunks = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Chunk> eldest) {
+                if (size() <= capacity) return false;
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /** The chunk with coordinates (cr, cc), loading or generating it if needed. */
+    Chunk get(long cr, long cc) {
+        Chunk c = last;
+        if (c != null && c.cr == cr && c.cc == cc) {
+            hits++;
+            return c;
+        }
+        Key key = new Key(cr, cc);
+        c = chunks.get(key);
+        if (c != null) {
+            hits++;
+        } else {
+            c = load(cr, cc);
+            chunks.put(key, c);
+        }
+        last = c;
+        return c;
+    }
+
+    int size() {
+        return chunks.size();
+    }
+
+    private Chunk load(long cr, long cc) {
+        Path file = spillFile(cr, cc);
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readLong() == seed && in.readInt() == mines && in.readInt() == treasures) {
+                    reloaded++;
+                    return Chunk.read(in, seed, mines, treasures, cr, cc);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot reload chunk " + cr + "," + cc, ex);
+            }
+        }
+        generated++;
+        return Chunk.generate(seed, mines, treasures, cr, cc);
+    }
+
+    private void evict(Chunk c) {
+        if (c == last) last = null;
+        if (!c.dirty) return;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(spillFile(c.cr, c.cc))))) {
+            out.writeLong(seed);
+            out.writeInt(mines);
+            out.writeInt(treasures);
+            c.write(out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot spill chunk " + c.cr + "," + c.cc, ex);
+        }
+        spilled++;
+    }
+
+    private Path spillFile(long cr, long cc) {
+        return spillDir.resolve("chunk_" + cr + "_" + cc);
+    }
+
+    /** Chunk coordinates as a map key. */
+    private static final class Key {
+        final long cr, cc;
+
+        Key(long cr, long cc) {
+            this.cr = cr;
+            this.cc = cc;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).cr == cr && ((Key) o).cc == cc;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(cr * 0x9E3779B97F4A7C15L + cc);
+        }
+    }
+
+    /** Delete every spill file. */
+    void deleteSpill() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir, "chunk_*")) {
+            for (Path p : files) Files.deleteIfExists(p);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package minesweeper.endless;
+
+import minesweeper.BitBoard;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * EndlessBoard is a minesweeper board with no edges: cells are addressed by
+ * any (row, col) pair of longs, negative ones included.  The plane wraps
+ * around where longs do: Long.MAX_VALUE and Long.MIN_VALUE are neighbours.
+ *
+ * The plane is divided into square chunks ({@value Chunk#SIZE} cells a side)
+ * that are generated only when first touched, each from a seed derived from
+ * the board seed and the chunk's position, so the same seed always gives the
+ * same board however it is explored.  Each chunk holds a fixed share of mines
+ * and treasures, and adjacent-mine counts see across chunk borders.
+ *
+ * Memory is bounded by the working set: at most maxChunks chunks are kept, in
+ * an LRU cache (see {@link ChunkCache}); colder chunks the player has changed
+ * are spilled to disk and reloaded transparently when needed again.
+ *
+ * The rules match {@link minesweeper.BoardModel}: revealing a treasure adds
+ * one to the treasure count, revealing a mine spends a treasure or ends the
+ * game, and revealing a cell with no adjacent mines opens its neighbours.
+ * There is no winning, only how far the player gets.
+ */
+public class EndlessBoard implements AutoCloseable {
+    /** Lowest mine density allowed; sparser boards could open areas without bound. */
+    public static final double MIN_MINE_DENSITY = 0.15;
+    /** Default number of chunks kept in memory (4 MB of cell state). */
+    public static final int DEFAULT_CACHED_CHUNKS = 1024;
+
+    private final ChunkCache cache;
+    private final Path spillDir;
+    private final boolean ownSpillDir;   // created here, so removed on close
+
+    private boolean gameOver;
+    private long cellsRevealed, revealedTreasures, flagsPlaced;
+    private int treasureCount;
+
+    private long[] queue = new long[256];  // flood fill: row, col pairs
+
+    /**
+     * Endless board with no treasures, the default cache size and a temporary
+     * spill directory.
+     *
+     * @param seed        determines every mine on the board
+     * @param mineDensity fraction of cells that are mines
+     * @throws IOException if the spill directory cannot be created
+     */
+    public EndlessBoard(long seed, double mineDensity) throws IOException {
+        this(seed, mineDensity, 0, DEFAULT_CACHED_CHUNKS, null);
+    }
+
+    /**
+     * @param seed            determines every mine and treasure on the board
+     * @param mineDensity     fraction of cells that are mines, at least MIN_MINE_DENSITY
+     * @param treasureDensity fraction of cells that are treasures
+     * @param maxChunks       chunks kept in memory (4 KB of cell state each)
+     * @param spillDir        where evicted chunks are written, or null for a
+     *                        temporary directory removed on close
+     * @throws IOException if the spill directory cannot be created
+     */
+    public EndlessBoard(long seed, double mineDensity, double treasureDensity,
+                        int maxChunks, Path spillDir) throws IOException {
+        if (!(mineDensity >= MIN_MINE_DENSITY) || !(treasureDensity >= 0)
+                || mineDensity + treasureDensity > 1) {
+            throw new IllegalArgumentException(
+                "Mine density must be at least " + MIN_MINE_DENSITY + " and densities must total at most 1: "
+                + mineDensity + ", " + treasureDensity);
+        }
+        if (maxChunks < 1) {
+            throw new IllegalArgumentException("Need at least one cached chunk: " + maxChunks);
+        }
+        this.ownSpillDir = spillDir == null;
+        this.spillDir = ownSpillDir ? Files.createTempDirectory("minesweeper-chunks")
+                                    : Files.createDirectories(spillDir);
+        int mines = (int) Math.round(mineDensity * Chunk.CELLS);
+        int treasures = Math.min((int) Math.round(treasureDensity * Chunk.CELLS), Chunk.CELLS - mines);
+        this.cache = new ChunkCache(seed, mines, treasures, maxChunks, this.spillDir);
+    }
+
+    // --- Moves ---
+
+    /**
+     * Reveal cell (r, c), opening the area around it if it has no adjacent mines.
+     * @return how many cells were uncovered (0 if the move was ignored)
+     */
+    public int revealCell(long r, long c) {
+        if (gameOver) return 0;
+        Chunk ch = chunkAt(r, c);
+        int i = index(r, c);
+        BitBoard b = ch.cells;
+        if (b.isRevealed(i) || b.isFlagged(i)) return 0;
+
+        b.setRevealed(i, true);
+        ch.dirty = true;
+        cellsRevealed++;
+        if (b.hasTreasure(i)) {
+            revealedTreasures++;
+            treasureCount++;
+            return 1;
+        }
+        if (b.isMine(i)) {
+            if (treasureCount > 0) treasureCount--;
+            else                   gameOver = true;
+            return 1;
+        }
+        return b.getAdjMines(i) == 0 ? 1 + floodReveal(r, c) : 1;
+    }
+
+    /**
+     * Breadth-first opening from the empty cell (r, c), which is already
+     * revealed.  Cells are marked revealed as they are queued, so each is
+     * visited once; chunks are fetched per cell, as the flood may cross many.
+     */
+    private int floodReveal(long r, long c) {
+        int head = 0, tail = 0, uncovered = 0;
+        queue[tail++] = r;
+        queue[tail++] = c;
+        while (head < tail) {
+            long qr = queue[head++], qc = queue[head++];
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    long rr = qr + dr, cc = qc + dc;   // wraps at the ends of the long range
+                    Chunk ch = chunkAt(rr, cc);
+                    int j = index(rr, cc);
+                    BitBoard b = ch.cells;
+                    if (b.isRevealed(j) || b.isFlagged(j)) continue;
+                    // neighbours of a 0-adj cell are never mines
+                    b.setRevealed(j, true);
+                    ch.dirty = true;
+                    uncovered++;
+                    if (b.hasTreasure(j)) {
+                        revealedTreasures++;
+                        treasureCount++;
+                    } else if (b.getAdjMines(j) == 0) {
+                        if (tail + 2 > queue.length) {
+                            // compact before growing: the consumed head is dead space
+                            System.arraycopy(queue, head, queue, 0, tail - head);
+                            tail -= head;
+                            head = 0;
+                            if (tail + 2 > queue.length) queue = Arrays.copyOf(queue, queue.length * 2);
+                        }
+                        queue[tail++] = rr;
+                        queue[tail++] = cc;
+                    }
+                }
+            }
+        }
+        cellsRevealed += uncovered;
+        return uncovered;
+    }
+
+    /** Toggle a flag at (r, c) if it is not revealed. */
+    public void markCell(long r, long c) {
+        if (gameOver) return;
+        Chunk ch = chunkAt(r, c);
+        int i = index(r, c);
+        if (ch.cells.isRevealed(i)) return;
+        boolean now = !ch.cells.isFlagged(i);
+        ch.cells.setFlagged(i, now);
+        ch.dirty = true;
+        flagsPlaced += now ? 1 : -1;
+    }
+
+    // --- Cells ---
+
+    public boolean isRevealed(long r, long c)  { return chunkAt(r, c).cells.isRevealed(index(r, c)); }
+    public boolean isFlagged(long r, long c)   { return chunkAt(r, c).cells.isFlagged(index(r, c)); }
+    public boolean isMine(long r, long c)      { return chunkAt(r, c).cells.isMine(index(r, c)); }
+    public boolean hasTreasure(long r, long c) { return chunkAt(r, c).cells.hasTreasure(index(r, c)); }
+    public int getAdjMines(long r, long c)     { return chunkAt(r, c).cells.getAdjMines(index(r, c)); }
+
+    private Chunk chunkAt(long r, long c) {
+        return cache.get(r >> Chunk.SHIFT, c >> Chunk.SHIFT);
+    }
+
+    /** Index of (r, c) within its chunk. */
+    private static int index(long r, long c) {
+        return (int) (r & Chunk.MASK) << Chunk.SHIFT | (int) (c & Chunk.MASK);
+    }
+
+    // --- Status ---
+
+    public boolean isGameOver()        { return gameOver; }
+    public long getCellsRevealed()     { return cellsRevealed; }
+    public long getRevealedTreasures() { return revealedTreasures; }
+    public long getFlagsPlaced()       { return flagsPlaced; }
+    public int getTreasureCount()      { return treasureCount; }
+
+    // --- Chunk cache ---
+
+    public int getChunksInMemory()     { return cache.size(); }
+    public long getChunksGenerated()   { return cache.generated; }
+    public long getChunksSpilled()     { return cache.spilled; }
+    public long getChunksReloaded()    { return cache.reloaded; }
+    public long getChunkHits()         { return cache.hits; }
+
+    /** Delete the spill files, and the spill directory if it was created here. */
+    @Override
+    public void close() throws IOException {
+        cache.deleteSpill();
+        if (ownSpillDir) Files.deleteIfExists(spillDir);
+    }
+
+    /**
+     * Walk a bot east across the board for the given number of columns and
+     * print how the chunk cache behaves.  The bot peeks at the mines, since
+     * the point is to explore far, not to play well.
+     * Usage: {@code EndlessBoard [columns [maxChunks [seed]]]}
+     */
+    public static void main(String[] args) throws IOException {
+        long columns  = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int maxChunks = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        long seed     = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        long start = System.nanoTime();
+        try (EndlessBoard board = new EndlessBoard(seed, 0.2, 0.01, maxChunks, null)) {
+            for (long c = 0; c < columns; c++) {
+                for (long r = -2; r <= 2; r++) {
+                    if (board.isMine(r, c)) board.markCell(r, c);
+                    else                    board.revealCell(r, c);
+                }
+                if ((c + 1) % (columns / 10 == 0 ? 1 : columns / 10) == 0) {
+                    Runtime rt = Runtime.getRuntime();
+                    System.out.printf("col %,d: revealed %,d, chunks in memory %d, generated %,d,"
+                        + " spilled %,d, reloaded %,d, heap %d MB%n",
+                        c + 1, board.getCellsRevealed(), board.getChunksInMemory(),
+                        board.getChunksGenerated(), board.getChunksSpilled(), board.getChunksReloaded(),
+                        (rt.totalMemory() - rt.freeMemory()) >> 20);
+                }
+            }
+        }
+        System.out.printf("%.2f s%n", (System.nanoTime() - start) / 1e9);
+    }
+}
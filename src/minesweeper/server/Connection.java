@@ -0,0 +1,172 @@
+package minesweeper.server;
+
+import minesweeper.Level;
+import minesweeper.Move;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Connection serves one client socket on its own thread: it reads requests
+ * line by line and answers each through a {@link NetworkView}, ending every
+ * answer with an OK or ERR line.  See {@link GameServer} for the protocol.
+ *
+ * The connection remembers its game by id and fetches it from the session
+ * store for every request, since the store may have written it out to disk
+ * in between; the view is moved to whichever copy is current.
+ */
+final class Connection implements Runnable {
+    private final GameServer server;
+    private final Socket socket;
+    private long sessionId;      // the game being played, or 0
+    private Session session;     // the copy the view listens to
+    private NetworkView view;
+
+    Connection(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    @Override
+    public void run() {
+        try (Socket s = socket) {
+            s.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                new BufferedInputStream(s.getInputStream()), StandardCharsets.US_ASCII));
+            view = new NetworkView(in, new BufferedOutputStream(s.getOutputStream()));
+            String line;
+            while ((line = in.readLine()) != null) {
+                boolean more = handle(line.trim());
+                view.flush();
+                if (!more) break;
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            // client went away; its session stays for a reconnect
+        } finally {
+            detach();
+            server.connectionClosed();
+        }
+    }
+
+    /** Answer one request; false once the client has quit. */
+    private boolean handle(String line) {
+        String[] t = line.split("\\s+");
+        String cmd = t[0].toUpperCase();
+        try {
+            switch (cmd) {
+                case "R":
+                case "M":
+                    move(line);
+                    break;
+                case "NEW":
+                    if (t.length < 2) throw new IllegalArgumentException("usage: NEW level [seed]");
+                    Level level = Level.valueOf(t[1].toUpperCase());
+                    detach();
+                    Session created = server.createSession(level, t.length > 2 ? Long.parseLong(t[2]) : null);
+                    sessionId = created.id;
+                    Session s = current();
+                    view.line("SESSION " + s.id + " " + s.level
+                        + " " + s.level.rows() + " " + s.level.cols() + " " + s.level.mines());
+                    break;
+                case "OPEN":
+                    if (t.length != 2) throw new IllegalArgumentException("usage: OPEN id");
+                    long id = Long.parseLong(t[1]);
+                    if (id != sessionId) {
+                        if (server.getSession(id) == null) {
+                            throw new IllegalArgumentException("no such session: " + t[1]);
+                        }
+                        detach();
+                        sessionId = id;   // current() claims it, unless another connection has it
+                    }
+                    s = current();
+                    view.line("SESSION " + s.id + " " + s.level
+                        + " " + s.level.rows() + " " + s.level.cols() + " " + s.level.mines());
+                    state();
+                    break;
+                case "STATE":
+                    state();
+                    break;
+                case "QUIT":
+                    view.line("OK");
+                    return false;
+                default:
+                    throw new IllegalArgumentException("unknown request: " + t[0]);
+            }
+            view.line("OK");
+        } catch (IllegalArgumentException | IllegalStateException | UncheckedIOException ex) {
+            view.line("ERR " + ex.getMessage());
+        }
+        return true;
+    }
+
+    /** Apply a move; the view sends the changed cells and status as events. */
+    private void move(String line) {
+        Move m = NetworkView.parseMove(line);
+        if (m == null) throw new IllegalArgumentException("usage: R row col or M row col");
+        while (true) {
+            Session s = current();
+            synchronized (s) {
+                if (s.evicted) continue;   // written out meanwhile: fetch it again
+                if (m.getType() == Move.Type.REVEAL) s.model.revealCell(m.getRow(), m.getCol());
+                else                                 s.model.markCell(m.getRow(), m.getCol());
+                s.dirty = true;
+            }
+            server.moveServed();
+            if (s.isFinished()) {
+                server.endSession(s);
+                detach();
+            }
+            return;
+        }
+    }
+
+    /** Send the whole board. */
+    private void state() {
+        while (true) {
+            Session s = current();
+            synchronized (s) {
+                if (s.evicted) continue;
+                view.display(s.model);
+                return;
+            }
+        }
+    }
+
+    /**
+     * The current copy of this connection's game, with the view listening to it.
+     * @throws IllegalStateException if there is no game, or another connection took it
+     */
+    private Session current() {
+        if (sessionId == 0) throw new IllegalStateException("no game: send NEW or OPEN first");
+        Session s = server.getSession(sessionId);
+        if (s == null) {
+            sessionId = 0;
+            throw new IllegalStateException("game has ended");
+        }
+        if (s != session) {
+            if (!s.attach(this)) {
+                sessionId = 0;
+                throw new IllegalStateException("session in use by another connection");
+            }
+            if (session != null) session.model.removeListener(view);
+            s.model.addListener(view);
+            session = s;
+        }
+        return s;
+    }
+
+    private void detach() {
+        if (session != null) {
+            session.model.removeListener(view);
+            session.detach(this);
+        }
+        session = null;
+        sessionId = 0;
+    }
+}
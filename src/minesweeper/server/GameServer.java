@@ -0,0 +1,159 @@
+package minesweeper.server;
+
+import minesweeper.Level;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GameServer hosts many concurrent games for clients on the local machine,
+ * over a plain-text TCP protocol with one request per line:
+ * <pre>
+ *   NEW level [seed]   start a game, e.g. NEW EXPERT  -> SESSION id level rows cols mines
+ *   OPEN id            resume a game                  -> SESSION ..., then the board
+ *   R row col          reveal a cell                  -> CELLS ... and STATUS ... if changed
+ *   M row col          toggle a flag                  -> CELLS ... and STATUS ... if changed
+ *   STATE              the whole board                -> BOARD ..., STATUS ...
+ *   QUIT               close the connection
+ * </pre>
+ * Every answer ends with a line {@code OK}, or {@code ERR message}.  The board
+ * and event lines are described in {@link NetworkView}.
+ *
+ * Each connection is served by its own thread, blocking on its socket; the
+ * threads get a small stack, so thousands of connections fit.  Games are
+ * kept by id until they are won or lost, so a client that disconnects can
+ * OPEN its game again; a {@link SessionStore} keeps the recently played ones
+ * in memory and the rest on disk.
+ */
+public class GameServer implements AutoCloseable {
+    /** Port used when none is given. */
+    public static final int DEFAULT_PORT = 7341;
+    private static final long STACK_SIZE = 256 * 1024;  // per connection thread
+
+    private final ServerSocket listener;
+    private final SessionStore sessions;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicLong connectionCount = new AtomicLong();
+    private Thread acceptor;
+
+    /**
+     * Listen on the loopback interface, keeping sessions in a temporary
+     * directory with the default memory budget and TTL.
+     * @param port TCP port, or 0 for any free port (see {@link #getPort})
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port) throws IOException {
+        this(port, new SessionStore(Files.createTempDirectory("minesweeper-sessions"),
+            SessionStore.DEFAULT_BUDGET, SessionStore.DEFAULT_TTL_MILLIS));
+    }
+
+    /**
+     * Listen on the loopback interface.
+     * @param port     TCP port, or 0 for any free port (see {@link #getPort})
+     * @param sessions where games are kept; closed with the server
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, SessionStore sessions) throws IOException {
+        this.sessions = sessions;
+        listener = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    }
+
+    /** Start accepting connections on a background thread. */
+    public synchronized void start() {
+        if (acceptor != null) throw new IllegalStateException("Server already started");
+        acceptor = new Thread(this::acceptLoop, "server-accept");
+        acceptor.start();
+    }
+
+    private void acceptLoop() {
+        while (!listener.isClosed()) {
+            Socket s;
+            try {
+                s = listener.accept();
+            } catch (SocketException ex) {
+                return;   // closed
+            } catch (IOException ex) {
+                System.err.println("Accept failed: " + ex.getMessage());
+                continue;
+            }
+            connections.incrementAndGet();
+            Thread t = new Thread(null, new Connection(this, s),
+                "conn-" + connectionCount.incrementAndGet(), STACK_SIZE);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    // --- Sessions ---
+
+    Session createSession(Level level, Long seed) {
+        return sessions.create(level, seed);
+    }
+
+    Session getSession(long id) {
+        return sessions.get(id);
+    }
+
+    void endSession(Session s) {
+        sessions.remove(s);
+    }
+
+    void moveServed()       { moves.incrementAndGet(); }
+    void connectionClosed() { connections.decrementAndGet(); }
+
+    // --- Status ---
+
+    public int getPort()              { return listener.getLocalPort(); }
+    public int getSessionCount()      { return sessions.getHotCount() + sessions.getColdCount(); }
+    public SessionStore getSessions() { return sessions; }
+    public int getConnectionCount()   { return connections.get(); }
+    public long getMovesServed()      { return moves.get(); }
+
+    /**
+     * Stop accepting connections and write the sessions in memory to disk;
+     * open connections end when their clients do.
+     */
+    @Override
+    public void close() throws IOException {
+        listener.close();
+        sessions.close();
+    }
+
+    /**
+     * Run a server until killed, printing its load every few seconds.
+     * Usage: {@code GameServer [port [sessionDir [budgetMB [ttlSeconds]]]]}
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server;
+        if (args.length > 1) {
+            long budget = args.length > 2 ? Long.parseLong(args[2]) << 20 : SessionStore.DEFAULT_BUDGET;
+            long ttl = args.length > 3 ? Long.parseLong(args[3]) * 1000 : SessionStore.DEFAULT_TTL_MILLIS;
+            server = new GameServer(port, new SessionStore(Paths.get(args[1]), budget, ttl));
+        } else {
+            server = new GameServer(port);
+        }
+        server.start();
+        System.out.println("Listening on localhost:" + server.getPort());
+        long lastMoves = 0;
+        while (true) {
+            Thread.sleep(5000);
+            long m = server.getMovesServed();
+            Runtime rt = Runtime.getRuntime();
+            SessionStore st = server.getSessions();
+            System.out.printf("connections %d, sessions %d in memory + %d on disk, moves/s %.0f,"
+                    + " evicted %d, loaded %d, heap %d MB%n",
+                server.getConnectionCount(), st.getHotCount(), st.getColdCount(), (m - lastMoves) / 5.0,
+                st.getEvictions(), st.getLoads(), (rt.totalMemory() - rt.freeMemory()) >> 20);
+            lastMoves = m;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package minesweeper.server;
+
+/**
+ * LatencyHistogram counts durations in nanoseconds in log-linear buckets
+ * (exact below 64 ns, then 32 buckets per power of two, so within about 3%),
+ * which is enough for percentiles at a fixed small cost per sample.  Not
+ * thread-safe: keep one per thread and {@link #add} them together.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB;            // values below this have their own bucket
+
+    private final long[] counts = new long[LINEAR + (64 - SUB_BITS - 1) * SUB];
+    private long total, max;
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucket(nanos)]++;
+        total++;
+        if (nanos > max) max = nanos;
+    }
+
+    void add(LatencyHistogram o) {
+        for (int k = 0; k < counts.length; k++) counts[k] += o.counts[k];
+        total += o.total;
+        max = Math.max(max, o.max);
+    }
+
+    long count() { return total; }
+    long max()   { return max; }
+
+    /** The smallest recorded value v such that a fraction q of samples are at most v (to bucket precision). */
+    long percentile(double q) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int k = 0; k < counts.length; k++) {
+            seen += counts[k];
+            if (seen >= rank) return Math.min(upper(k), max);
+        }
+        return max;
+    }
+
+    private static int bucket(long v) {
+        if (v < LINEAR) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v);         // at least SUB_BITS + 1
+        int mantissa = (int) (v >>> (e - SUB_BITS)) & (SUB - 1);
+        return LINEAR + (e - SUB_BITS - 1) * SUB + mantissa;
+    }
+
+    /** Largest value that falls in bucket k. */
+    private static long upper(int k) {
+        if (k < LINEAR) return k;
+        int e = (k - LINEAR) / SUB + SUB_BITS + 1;
+        long mantissa = (k - LINEAR) % SUB;
+        return ((SUB + mantissa + 1) << (e - SUB_BITS)) - 1;
+    }
+}
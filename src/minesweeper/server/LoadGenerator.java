@@ -0,0 +1,235 @@
+package minesweeper.server;
+
+import minesweeper.Level;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * LoadGenerator measures a {@link GameServer}: it opens many client
+ * connections, each playing games back to back by revealing random hidden
+ * cells, and reports moves per second and the move round-trip latency
+ * percentiles.  Optionally it first parks a number of idle games on the
+ * server, to see how many sessions a node holds.
+ *
+ * Without a server address it starts one in this process.
+ */
+public class LoadGenerator {
+    private final String host;
+    private final int port;
+
+    public LoadGenerator(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /** Totals of one run. */
+    public static final class Result {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long games, errors;
+        double seconds;
+
+        @Override
+        public String toString() {
+            return String.format("%d games, %d moves in %.1f s: %.0f moves/s, latency us"
+                    + " p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%s",
+                games, latency.count(), seconds, latency.count() / seconds,
+                latency.percentile(0.50) / 1e3, latency.percentile(0.90) / 1e3,
+                latency.percentile(0.99) / 1e3, latency.percentile(0.999) / 1e3,
+                latency.max() / 1e3, errors > 0 ? ", " + errors + " clients failed" : "");
+        }
+    }
+
+    /**
+     * Open games that are left unplayed on the server, over one connection.
+     * @return the number of games parked
+     */
+    public int park(Level level, int games) throws IOException {
+        try (Client c = new Client(0)) {
+            for (int k = 0; k < games; k++) c.newGame(level);
+        }
+        return games;
+    }
+
+    /**
+     * Play with the given number of concurrent clients for a while.
+     *
+     * @param clients     concurrent connections, one thread each
+     * @param seconds     how long to play
+     * @param level       level of every game
+     * @param thinkMillis pause between a client's moves
+     */
+    public Result run(int clients, double seconds, Level level, long thinkMillis)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        List<Thread> threads = new ArrayList<>();
+        List<Result> results = new ArrayList<>();
+        for (int k = 0; k < clients; k++) {
+            Result r = new Result();
+            results.add(r);
+            long seed = k;
+            Thread t = new Thread(null, () -> play(r, seed, deadline, level, thinkMillis),
+                "load-" + k, 256 * 1024);
+            threads.add(t);
+        }
+        long start = System.nanoTime();
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+
+        Result total = new Result();
+        for (Result r : results) {
+            total.latency.add(r.latency);
+            total.games  += r.games;
+            total.errors += r.errors;
+        }
+        total.seconds = (System.nanoTime() - start) / 1e9;
+        return total;
+    }
+
+    private void play(Result r, long seed, long deadline, Level level, long thinkMillis) {
+        try (Client c = new Client(seed)) {
+            while (System.nanoTime() < deadline) {
+                c.newGame(level);
+                r.games++;
+                while (c.playing && System.nanoTime() < deadline) {
+                    long t0 = System.nanoTime();
+                    c.revealRandom();
+                    r.latency.record(System.nanoTime() - t0);
+                    if (thinkMillis > 0) Thread.sleep(thinkMillis);
+                }
+            }
+        } catch (IOException | InterruptedException | RuntimeException ex) {
+            r.errors++;
+        }
+    }
+
+    /** One connection, mirroring the board of its current game. */
+    private final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final OutputStream out;
+        private final SplittableRandom rng;
+        private int cols;
+        private char[] board = new char[0];
+        private int[] hidden = new int[0];  // candidates for the next reveal; may hold stale cells
+        private int hiddenCount;
+        boolean playing;
+
+        Client(long seed) throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = socket.getOutputStream();
+            rng = new SplittableRandom(seed);
+        }
+
+        void newGame(Level level) throws IOException {
+            send("NEW " + level);
+            int n = level.rows() * level.cols();
+            cols = level.cols();
+            if (board.length != n) {
+                board = new char[n];
+                hidden = new int[n];
+            }
+            Arrays.fill(board, '.');
+            for (int i = 0; i < n; i++) hidden[i] = i;
+            hiddenCount = n;
+            playing = true;
+            readAnswer();
+        }
+
+        void revealRandom() throws IOException {
+            while (hiddenCount > 0) {
+                int k = rng.nextInt(hiddenCount);
+                int i = hidden[k];
+                hidden[k] = hidden[--hiddenCount];
+                if (board[i] == '.') {
+                    send("R " + i / cols + " " + i % cols);
+                    readAnswer();
+                    return;
+                }
+            }
+            playing = false;
+        }
+
+        private void send(String line) throws IOException {
+            out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        /** Apply event lines up to the closing OK. */
+        private void readAnswer() throws IOException {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.equals("OK")) return;
+                if (line.startsWith("ERR")) throw new IOException(line);
+                if (line.startsWith("CELLS ")) {
+                    String[] t = line.split(" ");
+                    for (int k = 2; k + 2 < t.length; k += 3) {
+                        board[Integer.parseInt(t[k]) * cols + Integer.parseInt(t[k + 1])] = t[k + 2].charAt(0);
+                    }
+                } else if (line.startsWith("STATUS ")) {
+                    playing = line.startsWith("STATUS PLAYING");
+                }
+            }
+            throw new IOException("Server closed the connection");
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Usage: {@code LoadGenerator [clients [seconds [level [thinkMillis [parked [host:port]]]]]]}.
+     * Without host:port a server is started in this process.
+     */
+    public static void main(String[] args) throws Exception {
+        int clients    = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+        Level level    = args.length > 2 ? Level.valueOf(args[2].toUpperCase()) : Level.EXPERT;
+        long think     = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        int parked     = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+
+        GameServer local = null;
+        String host;
+        int port;
+        if (args.length > 5) {
+            int colon = args[5].lastIndexOf(':');
+            host = args[5].substring(0, colon);
+            port = Integer.parseInt(args[5].substring(colon + 1));
+        } else {
+            local = new GameServer(0);
+            local.start();
+            host = InetAddress.getLoopbackAddress().getHostAddress();
+            port = local.getPort();
+        }
+        try {
+            LoadGenerator gen = new LoadGenerator(host, port);
+            if (parked > 0) {
+                long t0 = System.nanoTime();
+                gen.park(level, parked);
+                System.out.printf("Parked %d %s games in %.1f s%n", parked, level, (System.nanoTime() - t0) / 1e9);
+            }
+            System.out.println(gen.run(clients, seconds, level, think));
+            if (local != null) {
+                System.gc();
+                Runtime rt = Runtime.getRuntime();
+                System.out.printf("Server: %d sessions open, heap %d MB%n",
+                    local.getSessionCount(), (rt.totalMemory() - rt.freeMemory()) >> 20);
+            }
+        } finally {
+            if (local != null) local.close();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package minesweeper.server;
+
+import minesweeper.BoardModel;
+import minesweeper.ChangeSet;
+import minesweeper.GameStats;
+import minesweeper.IView;
+import minesweeper.Move;
+import minesweeper.TextView;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * NetworkView is an {@link IView} whose player is at the other end of a
+ * socket, speaking the line protocol of {@link GameServer}.
+ *
+ * Board events are written as protocol lines:
+ * <pre>
+ *   BOARD rows cols         followed by one line of cell symbols per row
+ *   CELLS n r c s ...       n changed cells, each as row, column and symbol
+ *   STATUS state flags treasures   state is PLAYING, WON or LOST
+ * </pre>
+ * Symbols are those of {@link TextView}: '.' hidden, 'F' flagged, '*' mine,
+ * 'T' treasure, or a digit.  Lines are buffered until {@link #flush}, so each
+ * request is answered with one write.
+ */
+public class NetworkView implements IView {
+    private final BufferedReader in;
+    private final OutputStream out;
+    private final StringBuilder pending = new StringBuilder(256);
+
+    /**
+     * @param in  requests from the client, one per line
+     * @param out where protocol lines are written
+     */
+    public NetworkView(BufferedReader in, OutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /** Send the whole board. */
+    @Override
+    public void display(BoardModel model) {
+        int rows = model.getRows(), cols = model.getCols();
+        pending.append("BOARD ").append(rows).append(' ').append(cols).append('\n');
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) pending.append(TextView.symbol(model, r, c));
+            pending.append('\n');
+        }
+        status(model, model.getStats());
+    }
+
+    /** Send just the cells the move changed. */
+    @Override
+    public void cellsChanged(BoardModel model, ChangeSet changes) {
+        pending.append("CELLS ").append(changes.size());
+        for (int k = 0; k < changes.size(); k++) {
+            int r = changes.row(k), c = changes.col(k);
+            pending.append(' ').append(r).append(' ').append(c)
+                   .append(' ').append(TextView.symbol(model, r, c));
+        }
+        pending.append('\n');
+    }
+
+    @Override
+    public void statusChanged(BoardModel model, GameStats stats) {
+        status(model, stats);
+    }
+
+    private void status(BoardModel model, GameStats stats) {
+        pending.append("STATUS ").append(stateOf(model))
+               .append(' ').append(stats.getFlagsLeft())
+               .append(' ').append(stats.getTreasureCount()).append('\n');
+    }
+
+    /** PLAYING, WON or LOST. */
+    static String stateOf(BoardModel model) {
+        return model.isGameWon() ? "WON" : model.isGameOver() ? "LOST" : "PLAYING";
+    }
+
+    /**
+     * Read requests until one is a move ({@code R row col} or {@code M row col});
+     * anything else is answered with an error line.
+     *
+     * @throws UncheckedIOException if the connection fails or is closed
+     */
+    @Override
+    public Move promptMove() {
+        try {
+            while (true) {
+                flush();
+                String line = in.readLine();
+                if (line == null) throw new EOFException("Client disconnected");
+                Move move = parseMove(line);
+                if (move != null) return move;
+                line("ERR expected R row col or M row col");
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** The move on a request line, or null if the line is not a well-formed move. */
+    static Move parseMove(String line) {
+        String[] t = line.trim().split("\\s+");
+        if (t.length != 3 || t[0].length() != 1) return null;
+        Move.Type type;
+        switch (Character.toUpperCase(t[0].charAt(0))) {
+            case 'R': type = Move.Type.REVEAL; break;
+            case 'M': type = Move.Type.MARK;   break;
+            default:  return null;
+        }
+        try {
+            return new Move(type, Integer.parseInt(t[1]), Integer.parseInt(t[2]));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /** Queue one protocol line. */
+    void line(String s) {
+        pending.append(s).append('\n');
+    }
+
+    /** Write everything queued in one go. */
+    void flush() throws IOException {
+        if (pending.length() == 0) return;
+        out.write(pending.toString().getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        pending.setLength(0);
+    }
+}
@@ -0,0 +1,50 @@
+package minesweeper.server;
+
+import minesweeper.BoardModel;
+import minesweeper.Level;
+
+/**
+ * Session is one game hosted by a {@link GameServer}.  At most one connection
+ * plays it at a time; a session outlives its connection until the game ends,
+ * so a client can reconnect and resume it.
+ *
+ * Moves are made while holding the session's lock, which is also what
+ * {@link SessionStore} takes to write it out: a session marked evicted has been
+ * replaced by its file, and must be fetched from the store again.
+ */
+final class Session {
+    // heap besides the bit planes: objects, change set and array headers
+    private static final long OVERHEAD = 1024;
+
+    final long id;
+    final Level level;
+    final BoardModel model;
+    final long footprint;            // estimated heap bytes, charged to the store's budget
+    volatile long lastAccess = System.nanoTime();
+    boolean dirty;                   // changed since last written; guarded by this
+    boolean evicted;                 // guarded by this
+    private Connection owner;        // guarded by this
+
+    Session(long id, Level level, BoardModel model) {
+        this.id = id;
+        this.level = level;
+        this.model = model;
+        long cells = (long) model.getRows() * model.getCols();
+        this.footprint = OVERHEAD + 4 * 8 * ((cells + 63) / 64) + (cells + 1) / 2;
+    }
+
+    /** Claim the session for a connection; false if another one holds it. */
+    synchronized boolean attach(Connection c) {
+        if (owner != null && owner != c) return false;
+        owner = c;
+        return true;
+    }
+
+    synchronized void detach(Connection c) {
+        if (owner == c) owner = null;
+    }
+
+    boolean isFinished() {
+        return model.isGameOver() || model.isGameWon();
+    }
+}
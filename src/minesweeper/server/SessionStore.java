@@ -0,0 +1,301 @@
+package minesweeper.server;
+
+import minesweeper.BoardModel;
+import minesweeper.Level;
+import minesweeper.MSBUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SessionStore keeps the games of a {@link GameServer} by id, holding only
+ * the recently used ones in memory.
+ *
+ * Sessions in memory are charged an estimate of their heap size against a
+ * budget.  When the budget is exceeded, a background thread writes the least
+ * recently used sessions to .msb files (see {@link MSBUtils}) until usage is
+ * back under the low-water mark; sessions idle for longer than the TTL are
+ * written out the same way.  A session that was not changed since it was last
+ * loaded still has an up-to-date file and is simply dropped.  {@link #get}
+ * reads an evicted session back in, which costs one small file read.
+ *
+ * Loading, evicting and removing a session hold a lock striped by id, so two
+ * copies of one game are never in play at once: a load cannot install a copy
+ * read before an eviction rewrote the file.
+ *
+ * Files are spread over 256 subdirectories by id, so a node can keep hundreds
+ * of thousands of paused games.  Files left by an earlier run are picked up
+ * again, and new ids continue after the highest one found.
+ */
+public class SessionStore implements AutoCloseable {
+    /** Default heap budget for sessions in memory. */
+    public static final long DEFAULT_BUDGET = 256L << 20;
+    /** Default idle time before a session is written out. */
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final double LOW_WATER = 0.9;     // evict down to this fraction of the budget
+    private static final int STRIPES = 64;            // id locks; a power of two
+
+    private final Path dir;
+    private final long budget, ttlMillis;
+    private final ConcurrentHashMap<Long, Session> hot = new ConcurrentHashMap<>();
+    private final AtomicLong hotBytes = new AtomicLong();
+    private final AtomicInteger cold = new AtomicInteger();   // sessions only on disk
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final ScheduledExecutorService background;
+    private final Object[] idLocks = new Object[STRIPES];   // taken before a session's own lock
+
+    private final AtomicLong evictions = new AtomicLong(), loads = new AtomicLong();
+
+    /**
+     * @param dir       where evicted sessions are written
+     * @param budget    bytes of heap for sessions in memory
+     * @param ttlMillis idle time after which a session is written out, or 0 for none
+     * @throws IOException if the directory cannot be created or scanned
+     */
+    public SessionStore(Path dir, long budget, long ttlMillis) throws IOException {
+        if (budget <= 0 || ttlMillis < 0) {
+            throw new IllegalArgumentException("Budget must be positive and TTL non-negative: "
+                + budget + ", " + ttlMillis);
+        }
+        this.dir = Files.createDirectories(dir);
+        this.budget = budget;
+        this.ttlMillis = ttlMillis;
+        for (int k = 0; k < STRIPES; k++) idLocks[k] = new Object();
+        scan();
+
+        background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-evict");
+            t.setDaemon(true);
+            return t;
+        });
+        if (ttlMillis > 0) {
+            long period = Math.max(ttlMillis / 4, 1);
+            background.scheduleWithFixedDelay(this::expire, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Count the sessions an earlier run left on disk and continue after their ids. */
+    private void scan() throws IOException {
+        long max = 0;
+        int found = 0;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(dir)) {
+            for (Path shard : shards) {
+                if (!Files.isDirectory(shard)) continue;
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard, "*" + MSBUtils.EXTENSION)) {
+                    for (Path f : files) {
+                        String name = f.getFileName().toString();
+                        try {
+                            max = Math.max(max, Long.parseLong(
+                                name.substring(0, name.length() - MSBUtils.EXTENSION.length())));
+                            found++;
+                        } catch (NumberFormatException ex) {
+                            // not a session file
+                        }
+                    }
+                }
+            }
+        }
+        cold.set(found);
+        nextId.set(max + 1);
+    }
+
+    // --- Access ---
+
+    /** Start a new game and keep it in memory. */
+    Session create(Level level, Long seed) {
+        long id = nextId.getAndIncrement();
+        BoardModel model = seed == null
+            ? new BoardModel(level.rows(), level.cols(), level.mines(), level.treasures())
+            : new BoardModel(level.rows(), level.cols(), level.mines(), level.treasures(), seed);
+        model.setHistoryLimit(0);   // the protocol has no undo
+        Session s = new Session(id, level, model);
+        s.dirty = true;             // no file yet
+        admit(s);
+        return s;
+    }
+
+    /**
+     * The session with this id, read back from disk if it was evicted.
+     * A session can be evicted again at any time after this returns; callers
+     * check {@link Session#evicted} under the session's lock before using it.
+     *
+     * @return the session, or null if there is no such game
+     * @throws UncheckedIOException if its file cannot be read
+     */
+    Session get(long id) {
+        Session s = hot.get(id);
+        if (s == null) s = load(id);
+        if (s != null) s.lastAccess = System.nanoTime();
+        return s;
+    }
+
+    private Session load(long id) {
+        Session s;
+        synchronized (lockFor(id)) {
+            s = hot.get(id);
+            if (s != null) return s;      // another thread loaded it first
+            Path file = file(id);
+            if (!Files.exists(file)) return null;
+            BoardModel model;
+            try {
+                model = MSBUtils.loadFromMSB(file.toString());
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot load session " + id, ex);
+            }
+            model.setHistoryLimit(0);
+            s = new Session(id, levelOf(model), model);
+            hot.put(id, s);
+        }
+        cold.decrementAndGet();
+        loads.incrementAndGet();
+        charge(s);
+        return s;
+    }
+
+    /**
+     * Forget a finished game, in memory and on disk.  Does nothing if another
+     * copy of the game has been loaded since s was evicted: that copy is the
+     * one in play, and is removed when it is finished in turn.
+     */
+    void remove(Session s) {
+        synchronized (lockFor(s.id)) {
+            Session current = hot.get(s.id);
+            if (current != null && current != s) return;
+            boolean wasCold;
+            synchronized (s) {
+                wasCold = s.evicted;    // written out just before it could be removed
+                s.evicted = true;
+                if (!wasCold && hot.remove(s.id, s)) hotBytes.addAndGet(-s.footprint);
+            }
+            try {
+                if (Files.deleteIfExists(file(s.id)) && wasCold) cold.decrementAndGet();
+            } catch (IOException ex) {
+                System.err.println("Cannot delete session file: " + ex.getMessage());
+            }
+        }
+    }
+
+    private Object lockFor(long id) {
+        return idLocks[(int) id & (STRIPES - 1)];
+    }
+
+    private void admit(Session s) {
+        hot.put(s.id, s);
+        charge(s);
+    }
+
+    private void charge(Session s) {
+        if (hotBytes.addAndGet(s.footprint) > budget && evicting.compareAndSet(false, true)) {
+            background.execute(this::shrink);
+        }
+    }
+
+    // --- Eviction ---
+
+    /** Write out least recently used sessions until under the low-water mark. */
+    private void shrink() {
+        try {
+            long target = (long) (budget * LOW_WATER);
+            if (hotBytes.get() <= target) return;
+            List<Session> byAge = new ArrayList<>(hot.values());
+            byAge.sort(Comparator.comparingLong(s -> s.lastAccess));
+            for (Session s : byAge) {
+                if (hotBytes.get() <= target) break;
+                evict(s);
+            }
+        } finally {
+            evicting.set(false);
+        }
+        if (hotBytes.get() > budget && evicting.compareAndSet(false, true)) {
+            background.execute(this::shrink);   // more arrived meanwhile
+        }
+    }
+
+    /** Write out sessions idle for longer than the TTL. */
+    private void expire() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        for (Session s : hot.values()) {
+            if (s.lastAccess - cutoff < 0) evict(s);
+        }
+    }
+
+    /** Move one session to disk; a move in progress finishes first. */
+    private void evict(Session s) {
+        synchronized (lockFor(s.id)) {
+            synchronized (s) {
+                if (s.evicted) return;
+                try {
+                    if (s.dirty) write(s);
+                } catch (IOException ex) {
+                    System.err.println("Cannot evict session " + s.id + ": " + ex.getMessage());
+                    return;   // keep it in memory
+                }
+                s.evicted = true;
+                hot.remove(s.id, s);
+                hotBytes.addAndGet(-s.footprint);
+                cold.incrementAndGet();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /** Write the session's file atomically, so a reader never sees half of it. */
+    private void write(Session s) throws IOException {
+        Path file = file(s.id);
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(s.id + ".tmp");
+        MSBUtils.saveToMSB(s.model, tmp.toString());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path file(long id) {
+        return dir.resolve(String.format("%02x", id & 0xFF)).resolve(id + MSBUtils.EXTENSION);
+    }
+
+    /** Sessions are only created per Level, so the board size identifies it. */
+    private static Level levelOf(BoardModel m) {
+        for (Level l : Level.values()) {
+            if (l.rows() == m.getRows() && l.cols() == m.getCols() && l.mines() == m.getTotalMines()) {
+                return l;
+            }
+        }
+        throw new IllegalStateException("Session board matches no level: "
+            + m.getRows() + "x" + m.getCols() + ", " + m.getTotalMines() + " mines");
+    }
+
+    // --- Status ---
+
+    public int getHotCount()      { return hot.size(); }
+    public int getColdCount()     { return cold.get(); }
+    public long getHotBytes()     { return hotBytes.get(); }
+    public long getEvictions()    { return evictions.get(); }
+    public long getLoads()        { return loads.get(); }
+
+    /** Write every session in memory to disk, so a later run can resume them. */
+    @Override
+    public void close() {
+        background.shutdown();
+        try {
+            background.awaitTermination(1, TimeUnit.MINUTES);   // let a running eviction finish
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        for (Session s : hot.values()) evict(s);
+    }
+}
@@ -0,0 +1,61 @@
+package minesweeper.sim;
+
+import minesweeper.Level;
+
+/**
+ * LevelStats is an immutable summary of the games a {@link Simulation} played
+ * on one {@link Level}.
+ */
+public class LevelStats {
+    private final Level level;
+    private final long games;
+    private final long wins;
+    private final long abandoned;      // games stopped at the move limit (counted as losses)
+    private final long moves;          // moves over all games
+    private final long treasuresUsed;  // mines defused with a treasure, over all games
+    private final long nanos;          // time spent playing, summed over all games
+
+    LevelStats(Level level, long games, long wins, long abandoned,
+               long moves, long treasuresUsed, long nanos) {
+        this.level         = level;
+        this.games         = games;
+        this.wins          = wins;
+        this.abandoned     = abandoned;
+        this.moves         = moves;
+        this.treasuresUsed = treasuresUsed;
+        this.nanos         = nanos;
+    }
+
+    public Level getLevel()        { return level; }
+    public long getGames()         { return games; }
+    public long getWins()          { return wins; }
+    public long getAbandoned()     { return abandoned; }
+    public long getMoves()         { return moves; }
+    public long getTreasuresUsed() { return treasuresUsed; }
+
+    /** Fraction of games won, 0 when no games were played. */
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    public double getMovesPerGame() {
+        return games == 0 ? 0 : (double) moves / games;
+    }
+
+    public double getTreasuresUsedPerGame() {
+        return games == 0 ? 0 : (double) treasuresUsed / games;
+    }
+
+    /** Average time per game on one thread, in microseconds. */
+    public double getMicrosPerGame() {
+        return games == 0 ? 0 : nanos / 1e3 / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-12s games=%d win=%.2f%% moves/game=%.1f treasures used/game=%.3f "
+                + "time/game=%.1fus abandoned=%d",
+            level, games, 100 * getWinRate(), getMovesPerGame(),
+            getTreasuresUsedPerGame(), getMicrosPerGame(), abandoned);
+    }
+}
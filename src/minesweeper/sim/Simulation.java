@@ -0,0 +1,221 @@
+package minesweeper.sim;
+
+import minesweeper.BoardModel;
+import minesweeper.GameStats;
+import minesweeper.IView;
+import minesweeper.Level;
+import minesweeper.Move;
+import minesweeper.solver.SolverView;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Simulation plays many games headlessly, on every core, to measure how a
+ * strategy fares on each {@link Level}.
+ *
+ * A strategy is any {@link IView}: it is shown the board with display(), sent
+ * the model's change events and asked for moves with promptMove(), exactly as
+ * under {@link minesweeper.GameController}, but nothing is printed.  Each worker
+ * thread creates its own strategy from the supplier and keeps its own
+ * per-Level accumulators, so games share no state; the accumulators are
+ * merged once all games are done.  Games are split into batches on a
+ * work-stealing ForkJoinPool sized to the machine.
+ *
+ * Game i of a Level uses a board seed derived from the run's seed, so a run
+ * deals the same boards every time.
+ */
+public class Simulation {
+    private static final int BATCH = 64;         // games played by one task without splitting
+    private static final int MOVE_LIMIT = 4;     // moves allowed per cell before a game is abandoned
+
+    private final Supplier<? extends IView> strategy;
+    private final int threads;
+
+    /**
+     * @param strategy creates one player per worker thread
+     */
+    public Simulation(Supplier<? extends IView> strategy) {
+        this(strategy, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param strategy creates one player per worker thread
+     * @param threads  number of worker threads
+     */
+    public Simulation(Supplier<? extends IView> strategy, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.strategy = strategy;
+        this.threads = threads;
+    }
+
+    /**
+     * Play the given number of games on each level.
+     * @param levels        levels to play
+     * @param gamesPerLevel games per level
+     * @param seed          seed for the boards
+     * @return merged statistics and overall throughput
+     */
+    public SimulationResult run(Level[] levels, long gamesPerLevel, long seed) {
+        if (gamesPerLevel < 0) {
+            throw new IllegalArgumentException("Game count must be non-negative: " + gamesPerLevel);
+        }
+        ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Worker> local = ThreadLocal.withInitial(() -> {
+            Worker w = new Worker(strategy.get());
+            workers.add(w);
+            return w;
+        });
+
+        List<Batch> batches = new ArrayList<>();
+        for (Level level : levels) {
+            batches.add(new Batch(local, level, seed, 0, gamesPerLevel));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(batches);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        long wall = System.nanoTime() - start;
+
+        // merge the per-thread accumulators
+        Map<Level, LevelStats> stats = new EnumMap<>(Level.class);
+        for (Level level : levels) {
+            Accumulator total = new Accumulator();
+            for (Worker w : workers) total.add(w.acc[level.ordinal()]);
+            stats.put(level, total.toStats(level));
+        }
+        return new SimulationResult(stats, wall);
+    }
+
+    /** Board seed for game i of a level: a SplitMix64 hash of the inputs. */
+    static long gameSeed(long seed, Level level, long i) {
+        long z = seed + 0x9E3779B97F4A7C15L * (i + 1) + ((long) level.ordinal() << 48);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // --- Workers ---
+
+    /** Running totals for one level on one thread. */
+    private static final class Accumulator {
+        long games, wins, abandoned, moves, treasuresUsed, nanos;
+
+        void add(Accumulator o) {
+            games         += o.games;
+            wins          += o.wins;
+            abandoned     += o.abandoned;
+            moves         += o.moves;
+            treasuresUsed += o.treasuresUsed;
+            nanos         += o.nanos;
+        }
+
+        LevelStats toStats(Level level) {
+            return new LevelStats(level, games, wins, abandoned, moves, treasuresUsed, nanos);
+        }
+    }
+
+    /** A worker thread's player and accumulators; only ever touched by that thread. */
+    private static final class Worker {
+        final IView player;
+        final Accumulator[] acc = new Accumulator[Level.values().length];
+
+        Worker(IView player) {
+            this.player = player;
+            for (int k = 0; k < acc.length; k++) acc[k] = new Accumulator();
+        }
+
+        /** Play one game to the end and record it. */
+        void play(Level level, long seed) {
+            long t0 = System.nanoTime();
+            BoardModel model = new BoardModel(
+                level.rows(), level.cols(), level.mines(), level.treasures(), seed);
+            long limit = (long) MOVE_LIMIT * level.rows() * level.cols();
+            long moves = 0;
+            player.display(model);
+            model.addListener(player);
+            while (!model.isGameOver() && !model.isGameWon() && moves < limit) {
+                Move move = player.promptMove();
+                if (move.getType() == Move.Type.REVEAL) {
+                    model.revealCell(move.getRow(), move.getCol());
+                } else {
+                    model.markCell(move.getRow(), move.getCol());
+                }
+                moves++;
+            }
+            model.removeListener(player);
+
+            Accumulator a = acc[level.ordinal()];
+            GameStats stats = model.getStats();
+            a.games++;
+            if (model.isGameWon()) a.wins++;
+            else if (!model.isGameOver()) a.abandoned++;
+            a.moves += moves;
+            a.treasuresUsed += stats.getRevealedTreasures() - stats.getTreasureCount();
+            a.nanos += System.nanoTime() - t0;
+        }
+    }
+
+    /** Games [lo, hi) of one level, split in half until small enough to play. */
+    private static final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ThreadLocal<Worker> local;
+        private final Level level;
+        private final long seed, lo, hi;
+
+        Batch(ThreadLocal<Worker> local, Level level, long seed, long lo, long hi) {
+            this.local = local;
+            this.level = level;
+            this.seed = seed;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > BATCH) {
+                long mid = (lo + hi) >>> 1;
+                invokeAll(new Batch(local, level, seed, lo, mid),
+                          new Batch(local, level, seed, mid, hi));
+                return;
+            }
+            Worker w = local.get();
+            for (long i = lo; i < hi; i++) {
+                w.play(level, gameSeed(seed, level, i));
+            }
+        }
+    }
+
+    /**
+     * Simulate the constraint solver on every level and print the results.
+     * Usage: {@code Simulation [gamesPerLevel [threads [seed]]]}
+     */
+    public static void main(String[] args) {
+        long games   = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int threads  = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed    = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        AtomicLong playerSeeds = new AtomicLong(seed);
+        Simulation sim = new Simulation(() -> new SolverView(playerSeeds.getAndIncrement()), threads);
+        System.out.println(sim.run(Level.values(), games, seed));
+    }
+}
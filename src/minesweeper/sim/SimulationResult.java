@@ -0,0 +1,56 @@
+package minesweeper.sim;
+
+import minesweeper.Level;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * SimulationResult holds the per-Level statistics of one {@link Simulation}
+ * run and its overall throughput.
+ */
+public class SimulationResult {
+    private final Map<Level, LevelStats> stats;
+    private final long wallNanos;
+
+    SimulationResult(Map<Level, LevelStats> stats, long wallNanos) {
+        this.stats = Collections.unmodifiableMap(stats);
+        this.wallNanos = wallNanos;
+    }
+
+    /** Statistics per level, in level order. */
+    public Map<Level, LevelStats> getStats() {
+        return stats;
+    }
+
+    /** Statistics for one level, or null if it was not played. */
+    public LevelStats get(Level level) {
+        return stats.get(level);
+    }
+
+    /** Games played over all levels. */
+    public long getGames() {
+        long total = 0;
+        for (LevelStats s : stats.values()) total += s.getGames();
+        return total;
+    }
+
+    /** Wall-clock time of the run, in nanoseconds. */
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    /** Games finished per second of wall-clock time, over all threads. */
+    public double getGamesPerSecond() {
+        return wallNanos == 0 ? 0 : getGames() * 1e9 / wallNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (LevelStats s : stats.values()) sb.append(s).append(System.lineSeparator());
+        sb.append(String.format("%d games in %.2f s: %.0f games/s",
+            getGames(), wallNanos / 1e9, getGamesPerSecond()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,593 @@
+package minesweeper.solver;
+
+import minesweeper.BoardModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MineProbabilities computes, for every cell a {@link Solver} could not resolve,
+ * the probability that it holds a mine, and picks the safest cell to guess.
+ *
+ * The unknown cells next to revealed numbers (the frontier) are split into
+ * independent components: two cells are in the same component when some
+ * number sees both.  Each component's consistent mine assignments are counted
+ * by backtracking, grouped by how many mines they use, and the components are
+ * then combined with the cells off the frontier, which share whatever mines
+ * are left (total mines minus known mines) uniformly.  Components are
+ * enumerated in parallel on the common ForkJoinPool.
+ *
+ * Each call aims to finish within a latency budget.  A component whose enumeration
+ * runs past half the budget is instead estimated from random consistent
+ * assignments, so the result is then approximate; see {@link #wasExact}.
+ * Components still counting share what is left of the budget equally, and
+ * each gets at least a few samples; one that finds no assignment at all is
+ * taken to be uniform, so it does not blank out the others' counts.  Exact component counts depend only on the shape of the
+ * component's cells and numbers, not on where it lies, so they are memoised by
+ * shape across calls, positions and games of the same width.
+ */
+public class MineProbabilities {
+    /** Default latency budget per call, in nanoseconds. */
+    public static final long DEFAULT_BUDGET_NANOS = 50_000_000L;
+
+    private static final int PARALLEL_MIN_CELLS = 32;   // smaller frontiers are enumerated in-line
+    private static final int CACHE_LIMIT = 1 << 14;      // memoised components kept at most
+    private static final int MAX_SAMPLE_NODES = 1 << 16; // backtracking steps allowed per sample
+    private static final int MIN_SAMPLES = 4;            // taken by a sampled component even past the budget
+
+    private final long budgetNanos;
+    private final SplittableRandom rng;
+    private final ConcurrentHashMap<Key, Counts> memo = new ConcurrentHashMap<>();
+
+    private double[] prob = new double[0];
+    private int[] slot = new int[0];     // frontier slot of each cell, or -1
+    private boolean exact;
+
+    /** Calculator with the default budget. */
+    public MineProbabilities() {
+        this(DEFAULT_BUDGET_NANOS, 0L);
+    }
+
+    /**
+     * @param budgetNanos latency budget per call, in nanoseconds
+     * @param seed        seed for sampling when a component is too large to enumerate
+     */
+    public MineProbabilities(long budgetNanos, long seed) {
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("Budget must be positive");
+        }
+        this.budgetNanos = budgetNanos;
+        this.rng = new SplittableRandom(seed);
+    }
+
+    /** Whether the last {@link #compute} enumerated every component exactly. */
+    public boolean wasExact() {
+        return exact;
+    }
+
+    /**
+     * The unknown cell least likely to be a mine.  Ties go to the cell with the
+     * lowest index.
+     * @return row-major index of the cell
+     */
+    public int bestGuess(Solver solver) {
+        double[] p = compute(solver);
+        int best = -1;
+        for (int i = 0; i < p.length; i++) {
+            if (solver.isUnknown(i) && (best < 0 || p[i] < p[best])) best = i;
+        }
+        if (best < 0) throw new IllegalStateException("No unknown cell left to guess");
+        return best;
+    }
+
+    /**
+     * Mine probability of every cell, as far as the solver knows: 1 for known
+     * mines, 0 for revealed or deduced-safe cells.
+     * Call after {@link Solver#deduceAll} so the frontier is up to date.
+     * @return array indexed by row-major cell index, reused by the next call
+     */
+    public double[] compute(Solver solver) {
+        long start = System.nanoTime();
+        BoardModel model = solver.getModel();
+        int cols = model.getCols();
+        int n = model.getRows() * cols;
+        if (prob.length != n) {
+            prob = new double[n];
+            slot = new int[n];
+            Arrays.fill(slot, -1);
+        }
+
+        // --- constraints: numbers with unknown neighbours, and the cells they see ---
+        List<int[]> consCells = new ArrayList<>();
+        List<Integer> consNumber = new ArrayList<>();  // cell index of the number
+        int[] needs = new int[solver.frontierSize()];
+        int[] frontier = new int[16];
+        int frontierCells = 0;
+        for (int k = 0; k < solver.frontierSize(); k++) {
+            int x = solver.frontierCell(k);
+            if (!solver.isNumber(x)) continue;
+            int[] cells = new int[8];
+            int size = 0, mines = 0;
+            int r = x / cols, c = x % cols;
+            for (int rr = Math.max(0, r - 1); rr <= Math.min(model.getRows() - 1, r + 1); rr++) {
+                for (int cc = Math.max(0, c - 1); cc <= Math.min(cols - 1, c + 1); cc++) {
+                    int j = rr * cols + cc;
+                    if (solver.isUnknown(j)) {
+                        cells[size++] = j;
+                        if (slot[j] < 0) {
+                            if (frontierCells == frontier.length) frontier = Arrays.copyOf(frontier, frontierCells * 2);
+                            slot[j] = frontierCells;
+                            frontier[frontierCells++] = j;
+                        }
+                    } else if (solver.isKnownMine(j)) {
+                        mines++;
+                    }
+                }
+            }
+            if (size == 0) continue;
+            needs[consCells.size()] = solver.numberAt(x) - mines;
+            consCells.add(Arrays.copyOf(cells, size));
+            consNumber.add(x);
+        }
+
+        // --- split into components (union-find over frontier slots) ---
+        int[] parent = new int[frontierCells];
+        for (int s = 0; s < frontierCells; s++) parent[s] = s;
+        for (int[] cells : consCells) {
+            int root = find(parent, slot[cells[0]]);
+            for (int j = 1; j < cells.length; j++) {
+                int other = find(parent, slot[cells[j]]);
+                if (other != root) parent[other] = root;
+            }
+        }
+        int[] compOf = new int[frontierCells];
+        List<Component> comps = new ArrayList<>();
+        int[] compIndex = new int[frontierCells];
+        Arrays.fill(compIndex, -1);
+        for (int s = 0; s < frontierCells; s++) {
+            int root = find(parent, s);
+            if (compIndex[root] < 0) {
+                compIndex[root] = comps.size();
+                comps.add(new Component(cols));
+            }
+            compOf[s] = compIndex[root];
+            comps.get(compOf[s]).addCell(frontier[s]);
+        }
+        for (int k = 0; k < consCells.size(); k++) {
+            int[] cells = consCells.get(k);
+            comps.get(compOf[slot[cells[0]]]).addConstraint(consNumber.get(k), needs[k], cells);
+        }
+        for (int s = 0; s < frontierCells; s++) slot[frontier[s]] = -1;  // leave slot clean
+
+        // --- count each component, in parallel when worthwhile ---
+        long exactDeadline = start + budgetNanos / 2;
+        long deadline      = start + budgetNanos;
+        AtomicInteger unfinished = new AtomicInteger(comps.size());
+        for (Component comp : comps) {
+            comp.prepare(memo, exactDeadline, deadline, unfinished, rng.split());
+        }
+        if (comps.size() > 1 && frontierCells >= PARALLEL_MIN_CELLS) {
+            ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(comps);
+                }
+            });
+        } else {
+            for (Component comp : comps) comp.invoke();
+        }
+        exact = true;
+        for (Component comp : comps) exact &= comp.counts.exact;
+        if (memo.size() > CACHE_LIMIT) memo.clear();
+
+        combine(solver, comps, frontierCells);
+        return prob;
+    }
+
+    /**
+     * Weigh the component counts against the mines left for the off-frontier
+     * cells and fill in prob.
+     */
+    private void combine(Solver solver, List<Component> comps, int frontierCells) {
+        int mines  = solver.getModel().getTotalMines() - solver.getKnownMines();
+        int others = solver.getUnknownCount() - frontierCells;
+        int c = comps.size();
+
+        // weight[K]: relative number of ways to place the other mines when the frontier holds K
+        double[] weight = new double[frontierCells + 1];
+        int jlo = Math.max(0, mines - frontierCells), jhi = Math.min(others, mines);
+        if (jlo <= jhi) {
+            // log C(others, j) up to a constant, by the ratio C(o, j+1) / C(o, j) = (o-j)/(j+1)
+            double[] logC = new double[jhi - jlo + 1];
+            for (int j = jlo; j < jhi; j++) {
+                logC[j - jlo + 1] = logC[j - jlo] + Math.log(others - j) - Math.log(j + 1);
+            }
+            double max = Double.NEGATIVE_INFINITY;
+            for (double v : logC) max = Math.max(max, v);
+            for (int j = jlo; j <= jhi; j++) {
+                weight[mines - j] = Math.exp(logC[j - jlo] - max);
+            }
+        }
+
+        // prefix[k] = ways over components 0..k-1; suffix[k] = ways over components k..c-1
+        double[][] prefix = new double[c + 1][];
+        double[][] suffix = new double[c + 1][];
+        prefix[0] = suffix[c] = new double[] { 1 };
+        for (int k = 0; k < c; k++) prefix[k + 1] = convolve(prefix[k], comps.get(k).counts.ways);
+        for (int k = c - 1; k >= 0; k--) suffix[k] = convolve(comps.get(k).counts.ways, suffix[k + 1]);
+
+        double[] all = prefix[c];
+        double total = 0, othersMines = 0;
+        for (int k = 0; k < all.length; k++) {
+            total       += all[k] * weight[k];
+            othersMines += all[k] * weight[k] * (mines - k);
+        }
+
+        double[] p = prob;
+        int n = p.length;
+        if (total <= 0) {
+            // inconsistent or unsampled: treat every unknown cell alike
+            double flat = Math.max(0, Math.min(1, (double) mines / Math.max(1, solver.getUnknownCount())));
+            for (int i = 0; i < n; i++) {
+                p[i] = solver.isKnownMine(i) ? 1 : solver.isUnknown(i) ? flat : 0;
+            }
+            exact = false;
+            return;
+        }
+        double off = others > 0 ? othersMines / total / others : 0;
+        for (int i = 0; i < n; i++) {
+            p[i] = solver.isKnownMine(i) ? 1 : solver.isUnknown(i) ? off : 0;
+        }
+
+        for (int k = 0; k < c; k++) {
+            Component comp = comps.get(k);
+            int m = comp.size;
+            double[] rest = convolve(prefix[k], suffix[k + 1]);
+            // tail[x]: weight of all completions when this component holds x mines
+            double[] tail = new double[m + 1];
+            for (int x = 0; x <= m; x++) {
+                double sum = 0;
+                for (int y = 0; y < rest.length && x + y < weight.length; y++) {
+                    sum += rest[y] * weight[x + y];
+                }
+                tail[x] = sum;
+            }
+            double[] mineWays = comp.counts.mineWays;
+            for (int j = 0; j < m; j++) {
+                double sum = 0;
+                for (int x = 0; x <= m; x++) sum += mineWays[j * (m + 1) + x] * tail[x];
+                p[comp.cells[j]] = sum / total;
+            }
+        }
+    }
+
+    private static double[] convolve(double[] a, double[] b) {
+        double[] out = new double[a.length + b.length - 1];
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == 0) continue;
+            for (int j = 0; j < b.length; j++) out[i + j] += a[i] * b[j];
+        }
+        return out;
+    }
+
+    private static int find(int[] parent, int s) {
+        while (parent[s] != s) {
+            parent[s] = parent[parent[s]];
+            s = parent[s];
+        }
+        return s;
+    }
+
+    // --- Components ---
+
+    /**
+     * Assignment counts for one component, scaled so the largest ways entry is 1.
+     * ways[x] = assignments with x mines; mineWays[j*(m+1)+x] = those in which
+     * local cell j is a mine.
+     */
+    private static final class Counts {
+        final double[] ways, mineWays;
+        final boolean exact;
+
+        Counts(double[] ways, double[] mineWays, boolean exact) {
+            double max = 0;
+            for (double w : ways) max = Math.max(max, w);
+            if (max > 0) {
+                for (int k = 0; k < ways.length; k++)     ways[k] /= max;
+                for (int k = 0; k < mineWays.length; k++) mineWays[k] /= max;
+            }
+            this.ways = ways;
+            this.mineWays = mineWays;
+            this.exact = exact;
+        }
+    }
+
+    /** Memo key: board width plus the component's cells and numbers, relative to its corner. */
+    private static final class Key {
+        final int[] data;
+        final int hash;
+
+        Key(int[] data) {
+            this.data = data;
+            this.hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(data, ((Key) o).data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /** One independent group of frontier cells and the numbers that see them. */
+    private static final class Component extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int cols;
+        int[] cells = new int[8];       // global cell indices, in discovery order
+        int size;
+        private int[][] consCells = new int[4][];  // local cell indices of each constraint
+        private int[] consNumber = new int[4];     // global index of each constraint's number
+        private int[] need = new int[4];
+        private int consCount;
+
+        private transient ConcurrentHashMap<Key, Counts> memo;
+        private long exactDeadline, deadline;
+        private transient AtomicInteger unfinished;   // components of this call not yet counted
+        private long stopAt;                          // when the current sample gives up
+        private transient SplittableRandom rng;
+        transient Counts counts;
+
+        // backtracking state
+        private int[] order, assigned, consMines, consLeft;
+        private int[][] cellCons;
+        private double[] ways, mineWays;
+        private long nodes;
+        private boolean aborted;
+
+        Component(int cols) {
+            this.cols = cols;
+        }
+
+        void addCell(int i) {
+            if (size == cells.length) cells = Arrays.copyOf(cells, size * 2);
+            cells[size++] = i;
+        }
+
+        void addConstraint(int number, int needed, int[] globalCells) {
+            if (consCount == need.length) {
+                consCells  = Arrays.copyOf(consCells, consCount * 2);
+                consNumber = Arrays.copyOf(consNumber, consCount * 2);
+                need       = Arrays.copyOf(need, consCount * 2);
+            }
+            consCells[consCount]  = globalCells;  // made local in prepare()
+            consNumber[consCount] = number;
+            need[consCount++]     = needed;
+        }
+
+        void prepare(ConcurrentHashMap<Key, Counts> memo, long exactDeadline, long deadline,
+                     AtomicInteger unfinished, SplittableRandom rng) {
+            this.memo = memo;
+            this.exactDeadline = exactDeadline;
+            this.deadline = deadline;
+            this.unfinished = unfinished;
+            this.rng = rng;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                count();
+            } finally {
+                unfinished.decrementAndGet();
+            }
+        }
+
+        private void count() {
+            // canonical order: sort cells, then constraints by their number's index
+            cells = Arrays.copyOf(cells, size);
+            Arrays.sort(cells);
+            Integer[] byNumber = new Integer[consCount];
+            for (int k = 0; k < consCount; k++) byNumber[k] = k;
+            Arrays.sort(byNumber, (a, b) -> Integer.compare(consNumber[a], consNumber[b]));
+
+            // the key holds positions relative to the component's top-left corner,
+            // so the same shape hits the memo wherever it appears on the board
+            int minRow = Integer.MAX_VALUE, minCol = Integer.MAX_VALUE;
+            for (int j = 0; j < size; j++) {
+                minRow = Math.min(minRow, cells[j] / cols);
+                minCol = Math.min(minCol, cells[j] % cols);
+            }
+            for (int k = 0; k < consCount; k++) {
+                minRow = Math.min(minRow, consNumber[k] / cols);
+                minCol = Math.min(minCol, consNumber[k] % cols);
+            }
+            int origin = minRow * cols + minCol;
+
+            int[] keyData = new int[2 + size + 2 * consCount];
+            keyData[0] = cols;
+            keyData[1] = size;
+            for (int j = 0; j < size; j++) keyData[2 + j] = cells[j] - origin;
+            int[][] local = new int[consCount][];
+            int[] needSorted = new int[consCount];
+            for (int k = 0; k < consCount; k++) {
+                int src = byNumber[k];
+                keyData[2 + size + 2 * k]     = consNumber[src] - origin;
+                keyData[2 + size + 2 * k + 1] = need[src];
+                int[] g = consCells[src];
+                local[k] = new int[g.length];
+                for (int j = 0; j < g.length; j++) local[k][j] = Arrays.binarySearch(cells, g[j]);
+                needSorted[k] = need[src];
+            }
+            consCells = local;
+            need = needSorted;
+
+            Key key = new Key(keyData);
+            Counts known = memo.get(key);
+            if (known != null) {
+                counts = known;
+                return;
+            }
+
+            buildOrder();
+            if (enumerate()) {
+                counts = new Counts(ways, mineWays, true);
+                memo.put(key, counts);
+            } else {
+                counts = new Counts(ways, mineWays, false);
+            }
+        }
+
+        /** Cells in breadth-first order through shared constraints, so numbers close early. */
+        private void buildOrder() {
+            cellCons = new int[size][];
+            int[] deg = new int[size];
+            for (int k = 0; k < consCount; k++) for (int j : consCells[k]) deg[j]++;
+            for (int j = 0; j < size; j++) cellCons[j] = new int[deg[j]];
+            Arrays.fill(deg, 0);
+            for (int k = 0; k < consCount; k++) for (int j : consCells[k]) cellCons[j][deg[j]++] = k;
+
+            order = new int[size];
+            boolean[] seen = new boolean[size];
+            boolean[] consSeen = new boolean[consCount];
+            int head = 0, tail = 0;
+            order[tail++] = 0;
+            seen[0] = true;
+            while (head < tail) {
+                int j = order[head++];
+                for (int k : cellCons[j]) {
+                    if (consSeen[k]) continue;
+                    consSeen[k] = true;
+                    for (int o : consCells[k]) {
+                        if (!seen[o]) {
+                            seen[o] = true;
+                            order[tail++] = o;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Count every consistent assignment, giving up at the exact deadline.
+         * @return true if the counts are exact; otherwise they are sampled
+         */
+        private boolean enumerate() {
+            assigned  = new int[size];
+            consMines = new int[consCount];
+            consLeft  = new int[consCount];
+            for (int k = 0; k < consCount; k++) consLeft[k] = consCells[k].length;
+            ways     = new double[size + 1];
+            mineWays = new double[size * (size + 1)];
+
+            backtrack(0, 0);
+            if (!aborted) return true;
+
+            // too slow to count: estimate from random consistent assignments instead
+            Arrays.fill(ways, 0);
+            Arrays.fill(mineWays, 0);
+            Arrays.fill(consMines, 0);
+            for (int k = 0; k < consCount; k++) consLeft[k] = consCells[k].length;
+            // an equal share of the time left with the components still counting, this one included
+            long now = System.nanoTime();
+            long share = now + Math.max(0, deadline - now) / Math.max(1, unfinished.get());
+            int samples = 0;
+            while (samples < MIN_SAMPLES || System.nanoTime() < share) {
+                stopAt = samples < MIN_SAMPLES ? Long.MAX_VALUE : share;
+                nodes = 0;
+                if (!sample(0, 0)) break;  // no assignment found within the step limit
+                samples++;
+            }
+            if (samples == 0) uniform();
+            return false;
+        }
+
+        /**
+         * Counts as if every way of placing x mines on the component were
+         * consistent: C(size, x), with each cell a mine in x/size of them.
+         */
+        private void uniform() {
+            double[] logC = new double[size + 1];
+            for (int x = 0; x < size; x++) logC[x + 1] = logC[x] + Math.log(size - x) - Math.log(x + 1);
+            double max = logC[size / 2];
+            for (int x = 0; x <= size; x++) {
+                ways[x] = Math.exp(logC[x] - max);
+                for (int j = 0; j < size; j++) mineWays[j * (size + 1) + x] = ways[x] * x / size;
+            }
+        }
+
+        private void backtrack(int d, int mines) {
+            if ((++nodes & 1023) == 0 && System.nanoTime() > exactDeadline) aborted = true;
+            if (aborted) return;
+            if (d == size) {
+                record(mines);
+                return;
+            }
+            int j = order[d];
+            for (int v = 0; v <= 1; v++) {
+                if (assign(j, v)) backtrack(d + 1, mines + v);
+                unassign(j, v);
+            }
+        }
+
+        /** One random consistent assignment, recorded when found. */
+        private boolean sample(int d, int mines) {
+            if (++nodes > MAX_SAMPLE_NODES
+                    || ((nodes & 1023) == 0 && System.nanoTime() > stopAt)) {
+                nodes = MAX_SAMPLE_NODES + 1;  // stop unwinding at once
+                return false;
+            }
+            if (d == size) {
+                record(mines);
+                return true;
+            }
+            int j = order[d];
+            int first = rng.nextInt(2);
+            for (int t = 0; t <= 1; t++) {
+                int v = first ^ t;
+                boolean ok = assign(j, v) && sample(d + 1, mines + v);
+                unassign(j, v);
+                if (ok) return true;
+                if (nodes > MAX_SAMPLE_NODES) return false;
+            }
+            return false;
+        }
+
+        private void record(int mines) {
+            ways[mines]++;
+            for (int j = 0; j < size; j++) {
+                if (assigned[j] == 1) mineWays[j * (size + 1) + mines]++;
+            }
+        }
+
+        /** Set local cell j to v and check its constraints; always undo with unassign. */
+        private boolean assign(int j, int v) {
+            assigned[j] = v;
+            boolean ok = true;
+            for (int k : cellCons[j]) {
+                consLeft[k]--;
+                consMines[k] += v;
+                ok &= consMines[k] <= need[k] && consMines[k] + consLeft[k] >= need[k];
+            }
+            return ok;
+        }
+
+        private void unassign(int j, int v) {
+            assigned[j] = 0;
+            for (int k : cellCons[j]) {
+                consLeft[k]++;
+                consMines[k] -= v;
+            }
+        }
+    }
+}
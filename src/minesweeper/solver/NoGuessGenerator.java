@@ -0,0 +1,231 @@
+package minesweeper.solver;
+
+import minesweeper.BoardModel;
+import minesweeper.Level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NoGuessGenerator deals boards that can be won from a given first click by
+ * deduction alone, so no game hinges on a coin flip.
+ *
+ * Candidates are ordinary seeded boards with the first click's neighbourhood
+ * kept clear (see {@link BoardModel#BoardModel(int, int, int, int, long, int, int)}).
+ * Each one is played by a {@link Solver} that may only reveal cells it has
+ * deduced to be safe; it is accepted if that wins the game.  Several threads
+ * check candidates 0, 1, 2, ... of a seed at once, and the lowest-numbered
+ * accepted candidate is the result, so a seed always yields the same board
+ * however many threads ran.  Once a candidate is accepted, the ones after it
+ * are abandoned mid-play.
+ *
+ * A generator is safe to use from several threads; each worker keeps its own
+ * Solver.
+ */
+public class NoGuessGenerator implements AutoCloseable {
+    /** Candidates tried per board before giving up. */
+    public static final int DEFAULT_MAX_CANDIDATES = 100_000;
+
+    private static final int ACCEPTED = 1, REJECTED = 0, ABANDONED = -1;
+
+    private final int rows, cols, mines, treasures;
+    private final int threads;
+    private final ExecutorService pool;      // helpers besides the calling thread; null if single-threaded
+    private final ThreadLocal<Solver> solvers = ThreadLocal.withInitial(() -> new Solver(0));
+    private int maxCandidates = DEFAULT_MAX_CANDIDATES;
+
+    private final AtomicLong candidates = new AtomicLong();  // played to the end
+    private final AtomicLong accepted   = new AtomicLong();
+    private final AtomicLong boards     = new AtomicLong();
+
+    /** A generator for a level, using every core. */
+    public NoGuessGenerator(Level level) {
+        this(level.rows(), level.cols(), level.mines(), level.treasures(),
+             Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads threads checking candidates for one board, including the caller
+     * @throws IllegalArgumentException if threads is below 1
+     */
+    public NoGuessGenerator(int rows, int cols, int mines, int treasures, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.treasures = treasures;
+        this.threads = threads;
+        AtomicInteger count = new AtomicInteger();
+        pool = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "no-guess-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Limit the candidates tried per board. */
+    public void setMaxCandidates(int maxCandidates) {
+        if (maxCandidates < 1) {
+            throw new IllegalArgumentException("Need at least one candidate: " + maxCandidates);
+        }
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Deal a board that can be won without guessing after first revealing
+     * (firstRow, firstCol).  The board is returned unplayed.
+     *
+     * @param seed chooses the board; the same seed and first click give the same board
+     * @throws IllegalArgumentException if the first click is off the board, or
+     *         the mines and treasures do not fit around its cleared neighbourhood
+     * @throws IllegalStateException    if no candidate was accepted within the limit
+     */
+    public BoardModel generate(int firstRow, int firstCol, long seed) {
+        BoardModel.checkFirstClick(rows, cols, mines, treasures, firstRow, firstCol);
+        Search search = new Search(firstRow, firstCol, seed);
+        List<Future<?>> helpers = new ArrayList<>();
+        if (pool != null) {
+            for (int t = 1; t < threads; t++) helpers.add(pool.submit(search));
+        }
+        search.run();
+        for (Future<?> f : helpers) {
+            try {
+                f.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating", ex);
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Candidate check failed", ex.getCause());
+            }
+        }
+
+        int k = search.best.get();
+        if (k == Integer.MAX_VALUE) {
+            throw new IllegalStateException("No guess-free " + rows + "x" + cols + " board with "
+                + mines + " mines found in " + maxCandidates + " candidates");
+        }
+        boards.incrementAndGet();
+        return candidate(k, search);
+    }
+
+    /** One board's search, shared by the threads working on it. */
+    private final class Search implements Runnable {
+        final int row, col;
+        final long seed;
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+
+        Search(int row, int col, long seed) {
+            this.row = row;
+            this.col = col;
+            this.seed = seed;
+        }
+
+        @Override
+        public void run() {
+            Solver solver = solvers.get();
+            while (true) {
+                int k = next.getAndIncrement();
+                if (k >= maxCandidates || k > best.get()) return;
+                int verdict = check(k, this, solver);
+                if (verdict == ABANDONED) continue;
+                candidates.incrementAndGet();
+                if (verdict == ACCEPTED) {
+                    accepted.incrementAndGet();
+                    best.accumulateAndGet(k, Math::min);
+                }
+            }
+        }
+    }
+
+    /** Play candidate k using deductions only. */
+    private int check(int k, Search search, Solver solver) {
+        BoardModel model = candidate(k, search);
+        model.setHistoryLimit(0);
+        model.revealCell(search.row, search.col);
+        solver.reset(model);
+        while (!model.isGameWon()) {
+            if (k > search.best.get()) return ABANDONED;   // a lower candidate already won
+            int i = solver.nextCell();
+            if (solver.getGuesses() > 0) return REJECTED;  // ran out of deductions
+            model.revealCell(i / cols, i % cols);
+            solver.observeChanges();
+        }
+        return ACCEPTED;
+    }
+
+    private BoardModel candidate(int k, Search search) {
+        return new BoardModel(rows, cols, mines, treasures,
+                              candidateSeed(search.seed, k), search.row, search.col);
+    }
+
+    /** Well-mixed, distinct seeds for a board's candidates (SplitMix64 finalizer). */
+    private static long candidateSeed(long seed, int k) {
+        long z = seed + (k + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // --- Status ---
+
+    /** Boards dealt so far. */
+    public long getBoards()     { return boards.get(); }
+    /** Candidates played to a verdict so far (abandoned ones are not counted). */
+    public long getCandidates() { return candidates.get(); }
+    /** Candidates found guess-free so far. */
+    public long getAccepted()   { return accepted.get(); }
+
+    /** Fraction of candidates that were guess-free, or NaN before any were checked. */
+    public double getAcceptanceRate() {
+        long c = candidates.get();
+        return c == 0 ? Double.NaN : (double) accepted.get() / c;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    /**
+     * Deal boards on every level, first click in the middle, and report the
+     * acceptance rate and generation latency per level.
+     * Usage: {@code NoGuessGenerator [boards [threads]]}
+     */
+    public static void main(String[] args) {
+        int count   = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                                      : Runtime.getRuntime().availableProcessors();
+        for (Level level : Level.values()) {
+            try (NoGuessGenerator gen = new NoGuessGenerator(
+                    level.rows(), level.cols(), level.mines(), level.treasures(), threads)) {
+                for (int s = 0; s < 20; s++) gen.generate(level.rows() / 2, level.cols() / 2, -1 - s);  // warm up
+                long warmCandidates = gen.getCandidates(), warmAccepted = gen.getAccepted();
+
+                long[] nanos = new long[count];
+                for (int s = 0; s < count; s++) {
+                    long t0 = System.nanoTime();
+                    gen.generate(level.rows() / 2, level.cols() / 2, s);
+                    nanos[s] = System.nanoTime() - t0;
+                }
+                Arrays.sort(nanos);
+                long tried = gen.getCandidates() - warmCandidates;
+                long ok = gen.getAccepted() - warmAccepted;
+                System.out.printf("%-12s %d boards, %d threads: acceptance %.1f%% (%.1f candidates/board),"
+                        + " ms p50 %.2f, p99 %.2f, max %.2f%n",
+                    level, count, threads, 100.0 * ok / tried, (double) tried / count,
+                    nanos[count / 2] / 1e6, nanos[(int) Math.min(count - 1, count * 0.99)] / 1e6,
+                    nanos[count - 1] / 1e6);
+            }
+        }
+    }
+}
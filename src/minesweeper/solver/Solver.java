@@ -0,0 +1,405 @@
+package minesweeper.solver;
+
+import minesweeper.BoardModel;
+import minesweeper.ChangeSet;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Solver plays a {@link BoardModel} by constraint propagation, seeing only what a
+ * player sees: revealed numbers, revealed treasures and revealed mines.
+ *
+ * Deductions, cheapest first:
+ * <ol>
+ *   <li>single cell: a number whose remaining mines equal 0 makes all its unknown
+ *       neighbours safe; one whose remaining mines equal its unknown neighbours
+ *       makes them all mines</li>
+ *   <li>subset: if number A's unknown neighbours are a subset of number B's, the
+ *       cells only B sees hold exactly (B's remaining - A's remaining) mines</li>
+ *   <li>mine count: once every mine is known, all other unknown cells are safe</li>
+ * </ol>
+ * When nothing can be deduced it guesses: a random unknown cell (from a seeded
+ * RNG, so a given seed and board always play the same game), or, once
+ * {@link #setProbabilities} is set, the unknown cell least likely to be a mine.
+ *
+ * All state lives in primitive arrays sized once per board size; after
+ * {@link #reset} a game is played without allocating.  Deduced mines are only
+ * tracked internally and never flagged on the board.
+ */
+public class Solver {
+    // per-cell knowledge
+    private static final byte UNKNOWN = 0;   // covered, nothing deduced
+    private static final byte SAFE    = 1;   // deduced safe, not yet revealed
+    private static final byte MINE    = 2;   // deduced or revealed mine
+    private static final byte OPEN    = 3;   // revealed safe cell (number or treasure)
+
+    private final SplittableRandom rng;
+    private MineProbabilities probabilities;  // optional guess strategy
+
+    private BoardModel model;
+    private int rows, cols, n;
+    private byte[] state;
+    private byte[] number;          // revealed count for OPEN cells, -1 if no number is shown
+
+    private int[] safeQueue;        // SAFE cells waiting to be revealed
+    private int safeHead, safeTail;
+
+    private int[] dirty;            // OPEN cells whose neighbourhood changed
+    private int dirtySize;
+    private boolean[] isDirty;
+
+    private int[] frontier;         // OPEN numbered cells that may still have unknown neighbours
+    private int frontierSize;
+
+    private int unknownCount, mineCount;
+    private int guesses, deductions;
+
+    // scratch for the subset rule
+    private final int[] scratchD = new int[8];
+
+    /**
+     * @param seed seed for guesses; the same seed replays the same choices
+     */
+    public Solver(long seed) {
+        this.rng = new SplittableRandom(seed);
+    }
+
+    /**
+     * Start solving a board, reading any cells that are already revealed.
+     * Arrays are reused when the board has the same size as the previous one.
+     */
+    public void reset(BoardModel model) {
+        this.model = model;
+        if (state == null || model.getRows() != rows || model.getCols() != cols) {
+            rows = model.getRows();
+            cols = model.getCols();
+            n    = rows * cols;
+            state     = new byte[n];
+            number    = new byte[n];
+            safeQueue = new int[n];
+            dirty     = new int[n];
+            isDirty   = new boolean[n];
+            frontier  = new int[n];
+        } else {
+            Arrays.fill(state, UNKNOWN);
+            Arrays.fill(isDirty, false);
+        }
+        safeHead = safeTail = 0;
+        dirtySize = frontierSize = 0;
+        unknownCount = n;
+        mineCount = 0;
+        guesses = deductions = 0;
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if (model.isRevealed(r, c)) observe(r * cols + c);
+            }
+        }
+    }
+
+    /** The board being solved. */
+    public BoardModel getModel() {
+        return model;
+    }
+
+    /**
+     * Take in the cells revealed by the model's last move
+     * (call after every move applied to the board).
+     */
+    public void observeChanges() {
+        ChangeSet changes = model.getLastChanges();
+        for (int k = 0; k < changes.size(); k++) {
+            int i = changes.cell(k);
+            if (state[i] != OPEN && model.isRevealed(i / cols, i % cols)) {
+                observe(i);
+            }
+        }
+    }
+
+    /**
+     * Play the board until it is won or lost.
+     * @return true if the game was won
+     */
+    public boolean play() {
+        while (!model.isGameOver() && !model.isGameWon()) {
+            int i = nextCell();
+            model.revealCell(i / cols, i % cols);
+            observeChanges();
+        }
+        return model.isGameWon();
+    }
+
+    /**
+     * Choose the next cell to reveal: a deduced safe cell if there is one,
+     * otherwise a guess.  Does not touch the board.
+     * @return row-major index of the cell
+     */
+    public int nextCell() {
+        while (true) {
+            while (safeHead < safeTail) {
+                int i = safeQueue[safeHead];
+                if (state[i] == SAFE) return i;
+                safeHead++;  // already revealed
+            }
+            if (dirtySize > 0) {
+                propagate();
+            } else if (!subsetPass() && !mineCountRule()) {
+                guesses++;
+                return probabilities != null ? probabilities.bestGuess(this) : guess();
+            }
+        }
+    }
+
+    /**
+     * Guess using per-cell mine probabilities instead of uniformly at random.
+     * @param probabilities the calculator to use, or null for random guesses
+     */
+    public void setProbabilities(MineProbabilities probabilities) {
+        this.probabilities = probabilities;
+    }
+
+    /** Guesses made so far this game. */
+    public int getGuesses()    { return guesses; }
+
+    /** Cells deduced (safe or mine) so far this game. */
+    public int getDeductions() { return deductions; }
+
+    /**
+     * Whether the cell at index i is an unknown cell the solver could not
+     * resolve (covered, not deduced safe or mine).
+     */
+    public boolean isUnknown(int i) {
+        return state[i] == UNKNOWN;
+    }
+
+    /** Whether the solver knows the cell at index i holds a mine. */
+    public boolean isKnownMine(int i) {
+        return state[i] == MINE;
+    }
+
+    /** Whether the cell at index i is revealed and shows a number (0-8). */
+    public boolean isNumber(int i) {
+        return state[i] == OPEN && number[i] >= 0;
+    }
+
+    /** The number shown on the cell at index i; only meaningful when isNumber(i). */
+    public int numberAt(int i) {
+        return number[i];
+    }
+
+    /** Number of cells neither revealed nor deduced. */
+    public int getUnknownCount() {
+        return unknownCount;
+    }
+
+    // numbered OPEN cells that may still border unknown cells (a superset of the live frontier)
+    int frontierSize()     { return frontierSize; }
+    int frontierCell(int k) { return frontier[k]; }
+
+    /** Number of known (deduced or revealed) mines. */
+    public int getKnownMines() {
+        return mineCount;
+    }
+
+    /**
+     * Run every deduction rule to a fixpoint without touching the board.
+     * @return true if at least one safe cell is waiting to be revealed
+     */
+    public boolean deduceAll() {
+        while (true) {
+            if (dirtySize > 0) propagate();
+            else if (!subsetPass() && !mineCountRule()) break;
+        }
+        while (safeHead < safeTail && state[safeQueue[safeHead]] != SAFE) safeHead++;
+        return safeHead < safeTail;
+    }
+
+    // --- Knowledge updates ---
+
+    /** Record a cell the board now shows as revealed. */
+    private void observe(int i) {
+        int r = i / cols, c = i % cols;
+        if (model.isMine(r, c)) {          // a revealed mine (defused with a treasure)
+            if (state[i] != MINE) setMine(i);
+            return;
+        }
+        if (state[i] == UNKNOWN) unknownCount--;
+        state[i] = OPEN;
+        if (model.hasTreasure(r, c)) {
+            number[i] = -1;                // shows a treasure, not a number
+        } else {
+            number[i] = (byte) model.getAdjMines(r, c);
+            if (number[i] > 0) frontier[frontierSize++] = i;
+            markDirty(i);
+        }
+        markNeighboursDirty(i);
+    }
+
+    private void setSafe(int i) {
+        state[i] = SAFE;
+        unknownCount--;
+        deductions++;
+        safeQueue[safeTail++] = i;
+        markNeighboursDirty(i);
+    }
+
+    private void setMine(int i) {
+        if (state[i] == UNKNOWN) {
+            unknownCount--;
+            deductions++;
+        }
+        state[i] = MINE;
+        mineCount++;
+        markNeighboursDirty(i);
+    }
+
+    private void markDirty(int i) {
+        if (!isDirty[i]) {
+            isDirty[i] = true;
+            dirty[dirtySize++] = i;
+        }
+    }
+
+    private void markNeighboursDirty(int i) {
+        int r = i / cols, c = i % cols;
+        for (int rr = Math.max(0, r - 1); rr <= Math.min(rows - 1, r + 1); rr++) {
+            for (int cc = Math.max(0, c - 1); cc <= Math.min(cols - 1, c + 1); cc++) {
+                int j = rr * cols + cc;
+                if (state[j] == OPEN && number[j] >= 0) markDirty(j);
+            }
+        }
+    }
+
+    // --- Rules ---
+
+    /** Apply the single-cell rule to every dirty cell until none are left. */
+    private void propagate() {
+        while (dirtySize > 0) {
+            int x = dirty[--dirtySize];
+            isDirty[x] = false;
+
+            int r = x / cols, c = x % cols;
+            int r0 = Math.max(0, r - 1), r1 = Math.min(rows - 1, r + 1);
+            int c0 = Math.max(0, c - 1), c1 = Math.min(cols - 1, c + 1);
+            int unknown = 0, mines = 0;
+            for (int rr = r0; rr <= r1; rr++) {
+                for (int j = rr * cols + c0, cc = c0; cc <= c1; cc++, j++) {
+                    if (state[j] == UNKNOWN) unknown++;
+                    else if (state[j] == MINE) mines++;
+                }
+            }
+            if (unknown == 0) continue;
+
+            int need = number[x] - mines;
+            if (need != 0 && need != unknown) continue;
+            for (int rr = r0; rr <= r1; rr++) {
+                for (int j = rr * cols + c0, cc = c0; cc <= c1; cc++, j++) {
+                    if (state[j] == UNKNOWN) {
+                        if (need == 0) setSafe(j);
+                        else           setMine(j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Try the subset rule on every pair of nearby frontier numbers.
+     * Frontier cells without unknown neighbours are dropped along the way.
+     * @return true if anything was deduced
+     */
+    private boolean subsetPass() {
+        boolean found = false;
+        int kept = 0;
+        for (int f = 0; f < frontierSize; f++) {
+            int a = frontier[f];
+            int sizeA = unknownNeighbours(a);
+            if (sizeA == 0) continue;      // settled, drop from the frontier
+            frontier[kept++] = a;
+            if (found) continue;           // keep compacting, apply later
+
+            int needA = number[a] - mineNeighbours(a);
+            int ra = a / cols, ca = a % cols;
+            for (int rb = Math.max(0, ra - 2); rb <= Math.min(rows - 1, ra + 2) && !found; rb++) {
+                for (int cb = Math.max(0, ca - 2); cb <= Math.min(cols - 1, ca + 2); cb++) {
+                    int b = rb * cols + cb;
+                    if (b == a || state[b] != OPEN || number[b] <= 0) continue;
+
+                    // split B's unknowns into those shared with A and those only B sees
+                    int shared = 0, sizeD = 0;
+                    for (int rr = Math.max(0, rb - 1); rr <= Math.min(rows - 1, rb + 1); rr++) {
+                        for (int cc = Math.max(0, cb - 1); cc <= Math.min(cols - 1, cb + 1); cc++) {
+                            int j = rr * cols + cc;
+                            if (state[j] != UNKNOWN) continue;
+                            if (Math.abs(rr - ra) <= 1 && Math.abs(cc - ca) <= 1) shared++;
+                            else scratchD[sizeD++] = j;
+                        }
+                    }
+                    if (shared != sizeA || sizeD == 0) continue;  // A is not a proper subset of B
+
+                    int diff = number[b] - mineNeighbours(b) - needA;
+                    if (diff == 0) {
+                        for (int k = 0; k < sizeD; k++) setSafe(scratchD[k]);
+                        found = true;
+                        break;
+                    } else if (diff == sizeD) {
+                        for (int k = 0; k < sizeD; k++) setMine(scratchD[k]);
+                        found = true;
+                        break;
+                    }
+                }
+            }
+        }
+        frontierSize = kept;
+        return found;
+    }
+
+    /**
+     * When every mine is known, all remaining unknown cells are safe.
+     * @return true if anything was deduced
+     */
+    private boolean mineCountRule() {
+        if (unknownCount == 0 || mineCount < model.getTotalMines()) return false;
+        for (int i = 0; i < n; i++) {
+            if (state[i] == UNKNOWN) setSafe(i);
+        }
+        return true;
+    }
+
+    /** Count the UNKNOWN neighbours of x. */
+    private int unknownNeighbours(int x) {
+        int r = x / cols, c = x % cols, count = 0;
+        for (int rr = Math.max(0, r - 1); rr <= Math.min(rows - 1, r + 1); rr++) {
+            for (int cc = Math.max(0, c - 1); cc <= Math.min(cols - 1, c + 1); cc++) {
+                if (state[rr * cols + cc] == UNKNOWN) count++;
+            }
+        }
+        return count;
+    }
+
+    /** Count the known-mine neighbours of x. */
+    private int mineNeighbours(int x) {
+        int r = x / cols, c = x % cols, count = 0;
+        for (int rr = Math.max(0, r - 1); rr <= Math.min(rows - 1, r + 1); rr++) {
+            for (int cc = Math.max(0, c - 1); cc <= Math.min(cols - 1, c + 1); cc++) {
+                if (state[rr * cols + cc] == MINE) count++;
+            }
+        }
+        return count;
+    }
+
+    /** A random UNKNOWN cell: a few random probes, then a scan from a random start. */
+    int guess() {
+        for (int tries = 0; tries < 16; tries++) {
+            int i = rng.nextInt(n);
+            if (state[i] == UNKNOWN) return i;
+        }
+        int start = rng.nextInt(n);
+        for (int k = 0; k < n; k++) {
+            int i = (start + k) % n;
+            if (state[i] == UNKNOWN) return i;
+        }
+        throw new IllegalStateException("No unknown cell left to guess");
+    }
+}
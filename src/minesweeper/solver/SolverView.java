@@ -0,0 +1,66 @@
+package minesweeper.solver;
+
+import minesweeper.BoardModel;
+import minesweeper.ChangeSet;
+import minesweeper.IView;
+import minesweeper.Move;
+
+/**
+ * SolverView plugs a {@link Solver} into {@link minesweeper.GameController} as an
+ * automated player: display() and the model's change events feed it the board
+ * and promptMove() answers with the solver's next reveal.  Nothing is printed.
+ */
+public class SolverView implements IView {
+    private final Solver solver;
+
+    /**
+     * @param seed seed for the solver's guesses
+     */
+    public SolverView(long seed) {
+        this.solver = new Solver(seed);
+    }
+
+    /**
+     * Track the board: a new model restarts the solver, otherwise the cells
+     * changed by the last move are taken in.
+     */
+    @Override
+    public void display(BoardModel model) {
+        if (model != solver.getModel()) {
+            solver.reset(model);
+        } else {
+            solver.observeChanges();
+        }
+    }
+
+    /** Take in the cells revealed by the last move. */
+    @Override
+    public void cellsChanged(BoardModel model, ChangeSet changes) {
+        display(model);
+    }
+
+    /** An undo can cover cells again, which the solver never expects: start over. */
+    @Override
+    public void historyStepped(BoardModel model, boolean redo) {
+        if (!redo) solver.reset(model);
+    }
+
+    /** The board was reset or reloaded: start over. */
+    @Override
+    public void boardReset(BoardModel model) {
+        solver.reset(model);
+    }
+
+    /** The solver's next move; always a reveal. */
+    @Override
+    public Move promptMove() {
+        int i = solver.nextCell();
+        int cols = solver.getModel().getCols();
+        return new Move(Move.Type.REVEAL, i / cols, i % cols);
+    }
+
+    /** The underlying solver, e.g. for guess and deduction counts. */
+    public Solver getSolver() {
+        return solver;
+    }
+}